@@ -6,9 +6,11 @@ import com.bgsoftware.wildstacker.command.ICommand;
 import com.bgsoftware.wildstacker.handlers.LootHandler;
 import com.bgsoftware.wildstacker.handlers.SettingsHandler;
 import com.bgsoftware.wildstacker.menu.EditorMenu;
+import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.tasks.ItemsMerger;
 import com.bgsoftware.wildstacker.tasks.KillTask;
 import com.bgsoftware.wildstacker.tasks.StackTask;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import org.bukkit.command.CommandSender;
 
@@ -51,11 +53,13 @@ public final class CommandReload implements ICommand {
     public void perform(WildStackerPlugin plugin, CommandSender sender, String[] args) {
         Executor.async(() -> {
             SettingsHandler.reload();
+            WStackedEntity.invalidateStackSignatures();
             LootHandler.reload();
             Locale.reload();
             KillTask.start();
             StackTask.start();
             ItemsMerger.start();
+            EntitiesGetter.start();
             EditorMenu.reloadConfiguration();
             Locale.RELOAD_SUCCESS.send(sender);
         });
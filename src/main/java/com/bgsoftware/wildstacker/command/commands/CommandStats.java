@@ -3,6 +3,8 @@ package com.bgsoftware.wildstacker.command.commands;
 import com.bgsoftware.wildstacker.Locale;
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.command.ICommand;
+import com.bgsoftware.wildstacker.tasks.ChunkLoadTask;
+import com.bgsoftware.wildstacker.utils.threads.StackService;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
@@ -61,7 +63,16 @@ public final class CommandStats implements ICommand {
                 "\n&e - Stacked Entities: (Loaded: " + entitiesAmount + ", Unloaded: " + unloadedEntitiesAmount + ")" +
                 "\n&e - Stacked Items: (Loaded: " + itemsAmount + ", Unloaded: " + unloadedItemsAmount + ")" +
                 "\n&e - Stacked Spawners: (Loaded: " + spawnersAmount + ", Unloaded: " + spawnersUnloadedAmount + ")" +
-                "\n&e - Stacked Barrels: (Loaded: " + barrelsAmount + ", Unloaded: " + barrelsUnloadedAmount + ")";
+                "\n&e - Stacked Barrels: (Loaded: " + barrelsAmount + ", Unloaded: " + barrelsUnloadedAmount + ")" +
+                "\n&e - Last Database Flush: (Rows: " + plugin.getDataHandler().getLastFlushSize() + ", Took: " + plugin.getDataHandler().getLastFlushDuration() + "ms)" +
+                "\n&e - Pending Chunk Loads: " + ChunkLoadTask.getQueueSize();
+
+        StringBuilder stackServiceMessage = new StringBuilder();
+        for (String shardStats : StackService.getShardsStats())
+            stackServiceMessage.append("\n&e   - ").append(shardStats);
+
+        if (stackServiceMessage.length() > 0)
+            message += "\n&e - Stacking Threads:" + stackServiceMessage;
 
         Locale.sendMessage(sender, message);
     }
@@ -0,0 +1,20 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.api.objects.StackedBarrel;
+import org.bukkit.inventory.ItemStack;
+
+public final class BarrelSnapshot extends StackedObjectSnapshot {
+
+    // The barrel item never changes, therefore it's safe to build it later from the database thread.
+    private final StackedBarrel stackedBarrel;
+
+    public BarrelSnapshot(StackedBarrel stackedBarrel) {
+        super(stackedBarrel);
+        this.stackedBarrel = stackedBarrel;
+    }
+
+    public ItemStack getBarrelItem() {
+        return stackedBarrel.getBarrelItem(1);
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class LogStorageBackend implements StorageBackend {
+
+    private final WildStackerPlugin plugin;
+    private final LogStore spawnersStore;
+    private final LogStore barrelsStore;
+
+    // Entities and items are stored on the entities themselves. Only their old rows in database.db are loaded from there.
+    private SQLiteStorageBackend legacyStorage = null;
+
+    public LogStorageBackend(WildStackerPlugin plugin) {
+        this.plugin = plugin;
+        File dataFolder = new File(plugin.getDataFolder(), "data");
+        this.spawnersStore = new LogStore(new File(dataFolder, "spawners.log"));
+        this.barrelsStore = new LogStore(new File(dataFolder, "barrels.log"));
+    }
+
+    @Override
+    public void open() throws Exception {
+        boolean databaseExists = new File(plugin.getDataFolder(), "database.db").exists();
+        boolean importDatabase = databaseExists && !spawnersStore.exists() && !barrelsStore.exists();
+
+        if (databaseExists) {
+            legacyStorage = new SQLiteStorageBackend(plugin);
+            legacyStorage.open();
+        }
+
+        spawnersStore.open();
+        barrelsStore.open();
+
+        if (importDatabase) {
+            try {
+                importDatabase();
+            } catch (Exception ex) {
+                // Removing the partially imported data, so the import will be retried on the next startup.
+                close();
+                spawnersStore.delete();
+                barrelsStore.delete();
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        spawnersStore.close();
+        barrelsStore.close();
+
+        if (legacyStorage != null) {
+            legacyStorage.close();
+            legacyStorage = null;
+        }
+    }
+
+    @Override
+    public void loadEntities(EntityConsumer consumer) {
+        if (legacyStorage != null)
+            legacyStorage.loadEntities(consumer);
+    }
+
+    @Override
+    public void loadItems(ItemConsumer consumer) {
+        if (legacyStorage != null)
+            legacyStorage.loadItems(consumer);
+    }
+
+    @Override
+    public void loadSpawners(SpawnerConsumer consumer) {
+        spawnersStore.forEach(record -> acceptSpawner(record, consumer));
+    }
+
+    @Override
+    public void loadSpawners(String world, int chunkX, int chunkZ, SpawnerConsumer consumer) {
+        spawnersStore.forEach(new ChunkPosition(world, chunkX, chunkZ), record -> acceptSpawner(record, consumer));
+    }
+
+    @Override
+    public void loadSpawnersChunks(ChunkConsumer consumer) {
+        spawnersStore.forEachChunk(chunkPosition ->
+                consumer.accept(chunkPosition.getWorld(), chunkPosition.getX(), chunkPosition.getZ()));
+    }
+
+    @Override
+    public void loadBarrels(BarrelConsumer consumer) {
+        barrelsStore.forEach(record -> acceptBarrel(record, consumer));
+    }
+
+    @Override
+    public void loadBarrels(String world, int chunkX, int chunkZ, BarrelConsumer consumer) {
+        barrelsStore.forEach(new ChunkPosition(world, chunkX, chunkZ), record -> acceptBarrel(record, consumer));
+    }
+
+    @Override
+    public void loadBarrelsChunks(ChunkConsumer consumer) {
+        barrelsStore.forEachChunk(chunkPosition ->
+                consumer.accept(chunkPosition.getWorld(), chunkPosition.getX(), chunkPosition.getZ()));
+    }
+
+    @Override
+    public boolean saveObjects(List<SpawnerSnapshot> spawnerSnapshots, List<BarrelSnapshot> barrelSnapshots) {
+        List<LogStore.Record> spawnerRecords = new ArrayList<>(spawnerSnapshots.size());
+        List<LogStore.Record> barrelRecords = new ArrayList<>(barrelSnapshots.size());
+
+        for (SpawnerSnapshot spawnerSnapshot : spawnerSnapshots) {
+            spawnerRecords.add(LogStore.Record.put(spawnerSnapshot.getWorld(), spawnerSnapshot.getX(), spawnerSnapshot.getY(),
+                    spawnerSnapshot.getZ(), spawnerSnapshot.getStackAmount(), spawnerSnapshot.getUpgradeId(), ""));
+        }
+
+        for (BarrelSnapshot barrelSnapshot : barrelSnapshots) {
+            ItemStack barrelItem = barrelSnapshot.getBarrelItem();
+            barrelRecords.add(LogStore.Record.put(barrelSnapshot.getWorld(), barrelSnapshot.getX(), barrelSnapshot.getY(),
+                    barrelSnapshot.getZ(), barrelSnapshot.getStackAmount(), 0,
+                    barrelItem == null ? "" : plugin.getNMSAdapter().serialize(barrelItem)));
+        }
+
+        boolean savedSpawners = spawnersStore.write(spawnerRecords);
+        boolean savedBarrels = barrelsStore.write(barrelRecords);
+
+        return savedSpawners && savedBarrels;
+    }
+
+    @Override
+    public void deleteSpawner(String world, int x, int y, int z) {
+        spawnersStore.write(Collections.singletonList(LogStore.Record.delete(world, x, y, z)));
+    }
+
+    @Override
+    public void deleteSpawners(String world) {
+        spawnersStore.write(Collections.singletonList(LogStore.Record.deleteWorld(world)));
+    }
+
+    @Override
+    public void deleteBarrel(String world, int x, int y, int z) {
+        barrelsStore.write(Collections.singletonList(LogStore.Record.delete(world, x, y, z)));
+    }
+
+    @Override
+    public void deleteBarrels(String world) {
+        barrelsStore.write(Collections.singletonList(LogStore.Record.deleteWorld(world)));
+    }
+
+    private void importDatabase() throws Exception {
+        long startTime = System.currentTimeMillis();
+        WildStackerPlugin.log("Starting to import spawners and barrels from database.db...");
+
+        List<LogStore.Record> spawnerRecords = new ArrayList<>();
+        List<LogStore.Record> barrelRecords = new ArrayList<>();
+
+        legacyStorage.loadSpawners((world, x, y, z, stackAmount, upgradeId) ->
+                spawnerRecords.add(LogStore.Record.put(world, x, y, z, stackAmount, upgradeId, "")));
+        legacyStorage.loadBarrels((world, x, y, z, stackAmount, item) ->
+                barrelRecords.add(LogStore.Record.put(world, x, y, z, stackAmount, 0, item)));
+
+        if (!spawnersStore.write(spawnerRecords) || !barrelsStore.write(barrelRecords))
+            throw new IOException("Failed to import spawners and barrels from database.db");
+
+        WildStackerPlugin.log("Importing " + spawnerRecords.size() + " spawners and " + barrelRecords.size() +
+                " barrels done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
+    private static void acceptSpawner(LogStore.Record record, SpawnerConsumer consumer) {
+        consumer.accept(record.getWorld(), record.getX(), record.getY(), record.getZ(), record.getStackAmount(),
+                record.getUpgradeId());
+    }
+
+    private static void acceptBarrel(LogStore.Record record, BarrelConsumer consumer) {
+        consumer.accept(record.getWorld(), record.getX(), record.getY(), record.getZ(), record.getStackAmount(),
+                record.getItem());
+    }
+
+}
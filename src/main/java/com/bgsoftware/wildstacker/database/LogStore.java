@@ -0,0 +1,455 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import com.bgsoftware.wildstacker.utils.chunks.PositionKeys;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/*
+ * An append-only file of records, keyed by block positions.
+ * Each record is written as [length][crc32][body], so a torn write at the end of the file is detected and dropped.
+ * Only the offsets of the live records are kept in memory, and the records themselves are read from the file when needed.
+ * The file is rewritten once most of its records are stale.
+ */
+final class LogStore {
+
+    private static final byte PUT = 0, DELETE = 1, DELETE_WORLD = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int COMPACTION_MIN_RECORDS = 4096;
+
+    // The offsets of the live records in the file, by their chunks and block keys.
+    private final Map<ChunkPosition, Map<Long, Long>> offsets = new HashMap<>();
+    private final File file;
+
+    private FileChannel channel;
+    private int liveRecords = 0, fileRecords = 0;
+
+    LogStore(File file) {
+        this.file = file;
+    }
+
+    boolean exists() {
+        return file.exists();
+    }
+
+    boolean delete() {
+        return file.delete();
+    }
+
+    synchronized void open() throws IOException {
+        file.getParentFile().mkdirs();
+
+        long validLength = 0;
+
+        if (file.exists() && file.length() > 0)
+            validLength = replay();
+
+        openChannel();
+
+        if (channel.size() > validLength) {
+            WildStackerPlugin.log("&cFound a corrupted record at the end of " + file.getName() + ", dropping " +
+                    (channel.size() - validLength) + " bytes.");
+            channel.truncate(validLength);
+        }
+
+        channel.position(validLength);
+
+        compactIfNeeded();
+    }
+
+    synchronized void close() {
+        try {
+            if (channel != null)
+                channel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    synchronized void forEach(Consumer<Record> consumer) {
+        offsets.values().forEach(chunkOffsets -> forEach(chunkOffsets, consumer));
+    }
+
+    synchronized void forEach(ChunkPosition chunkPosition, Consumer<Record> consumer) {
+        forEach(offsets.getOrDefault(chunkPosition, Collections.emptyMap()), consumer);
+    }
+
+    synchronized void forEachChunk(Consumer<ChunkPosition> consumer) {
+        offsets.keySet().forEach(consumer);
+    }
+
+    synchronized boolean write(List<Record> logRecords) {
+        if (logRecords.isEmpty())
+            return true;
+
+        long position = -1;
+        long[] recordsOffsets;
+
+        try {
+            position = channel.position();
+            recordsOffsets = writeRecords(channel, logRecords);
+            channel.force(false);
+        } catch (IOException ex) {
+            WildStackerPlugin.log("&cFailed to write " + logRecords.size() + " records to " + file.getName() + ":");
+            ex.printStackTrace();
+
+            // Dropping the partially written records, so the next writes will not be appended after them.
+            try {
+                if (position >= 0) {
+                    channel.truncate(position);
+                    channel.position(position);
+                }
+            } catch (IOException ignored) {
+            }
+
+            return false;
+        }
+
+        for (int i = 0; i < recordsOffsets.length; i++)
+            apply(logRecords.get(i), position + recordsOffsets[i]);
+
+        fileRecords += logRecords.size();
+
+        compactIfNeeded();
+
+        return true;
+    }
+
+    private void forEach(Map<Long, Long> chunkOffsets, Consumer<Record> consumer) {
+        for (long offset : chunkOffsets.values()) {
+            try {
+                consumer.accept(readRecord(readBody(channel, offset)));
+            } catch (IOException ex) {
+                WildStackerPlugin.log("&cFailed to read a record from " + file.getName() + ":");
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // The file is read as a stream rather than mapped, so files of any size can be replayed.
+    private long replay() throws IOException {
+        CRC32 crc32 = new CRC32();
+        long fileLength = file.length();
+        long validLength = 0;
+        byte[] body = new byte[256];
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            while (fileLength - validLength >= HEADER_SIZE) {
+                int length = input.readInt();
+                int checksum = input.readInt();
+
+                if (length <= 0 || length > fileLength - validLength - HEADER_SIZE)
+                    break;
+
+                if (body.length < length)
+                    body = new byte[Math.max(length, body.length * 2)];
+
+                input.readFully(body, 0, length);
+
+                crc32.reset();
+                crc32.update(body, 0, length);
+
+                if ((int) crc32.getValue() != checksum)
+                    break;
+
+                apply(readRecord(ByteBuffer.wrap(body, 0, length)), validLength);
+
+                validLength += HEADER_SIZE + length;
+                fileRecords++;
+            }
+        } catch (EOFException ignored) {
+            // The file ends with a torn record, which is dropped.
+        }
+
+        return validLength;
+    }
+
+    private void apply(Record record, long offset) {
+        switch (record.type) {
+            case PUT:
+                if (offsets.computeIfAbsent(record.getChunkPosition(), c -> new HashMap<>()).put(record.getBlockKey(), offset) == null)
+                    liveRecords++;
+                break;
+            case DELETE: {
+                ChunkPosition chunkPosition = record.getChunkPosition();
+                Map<Long, Long> chunkOffsets = offsets.get(chunkPosition);
+                if (chunkOffsets != null && chunkOffsets.remove(record.getBlockKey()) != null) {
+                    liveRecords--;
+                    if (chunkOffsets.isEmpty())
+                        offsets.remove(chunkPosition);
+                }
+                break;
+            }
+            case DELETE_WORLD: {
+                Iterator<Map.Entry<ChunkPosition, Map<Long, Long>>> iterator = offsets.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<ChunkPosition, Map<Long, Long>> entry = iterator.next();
+                    if (entry.getKey().getWorld().equals(record.world)) {
+                        liveRecords -= entry.getValue().size();
+                        iterator.remove();
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (fileRecords < COMPACTION_MIN_RECORDS || fileRecords < liveRecords * 2)
+            return;
+
+        long startTime = System.currentTimeMillis();
+        File compactFile = new File(file.getParentFile(), file.getName() + ".compact");
+        Map<ChunkPosition, Map<Long, Long>> compactOffsets = new HashMap<>();
+
+        try {
+            // The live records are copied as they are, and their offsets in the new file are tracked.
+            try (FileChannel compactChannel = FileChannel.open(compactFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream output = new BufferedOutputStream(Channels.newOutputStream(compactChannel))) {
+                long compactPosition = 0;
+
+                for (Map.Entry<ChunkPosition, Map<Long, Long>> chunkEntry : offsets.entrySet()) {
+                    Map<Long, Long> chunkOffsets = new HashMap<>();
+                    for (Map.Entry<Long, Long> recordEntry : chunkEntry.getValue().entrySet()) {
+                        byte[] recordBytes = readFramedRecord(channel, recordEntry.getValue());
+                        output.write(recordBytes);
+                        chunkOffsets.put(recordEntry.getKey(), compactPosition);
+                        compactPosition += recordBytes.length;
+                    }
+                    compactOffsets.put(chunkEntry.getKey(), chunkOffsets);
+                }
+
+                output.flush();
+                compactChannel.force(true);
+            }
+
+            channel.close();
+            Files.move(compactFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            offsets.clear();
+            offsets.putAll(compactOffsets);
+
+            WildStackerPlugin.log("Compacted " + file.getName() + " from " + fileRecords + " to " + liveRecords +
+                    " records. Took " + (System.currentTimeMillis() - startTime) + " ms.");
+
+            fileRecords = liveRecords;
+        } catch (IOException ex) {
+            WildStackerPlugin.log("&cFailed to compact " + file.getName() + ":");
+            ex.printStackTrace();
+            compactFile.delete();
+        } finally {
+            if (!channel.isOpen()) {
+                try {
+                    openChannel();
+                } catch (IOException ex) {
+                    WildStackerPlugin.log("&cFailed to reopen " + file.getName() + ":");
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    // Returns the offsets of the records, relative to the position they were written at.
+    private static long[] writeRecords(FileChannel channel, List<Record> logRecords) throws IOException {
+        ByteArrayOutputStream recordsStream = new ByteArrayOutputStream();
+        DataOutputStream recordsOutput = new DataOutputStream(recordsStream);
+        ByteArrayOutputStream bodyStream = new ByteArrayOutputStream();
+        DataOutputStream bodyOutput = new DataOutputStream(bodyStream);
+        CRC32 crc32 = new CRC32();
+        long[] recordsOffsets = new long[logRecords.size()];
+
+        for (int i = 0; i < recordsOffsets.length; i++) {
+            recordsOffsets[i] = recordsStream.size();
+
+            bodyStream.reset();
+            logRecords.get(i).write(bodyOutput);
+
+            crc32.reset();
+            crc32.update(bodyStream.toByteArray());
+
+            recordsOutput.writeInt(bodyStream.size());
+            recordsOutput.writeInt((int) crc32.getValue());
+            bodyStream.writeTo(recordsOutput);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(recordsStream.toByteArray());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+
+        return recordsOffsets;
+    }
+
+    private static ByteBuffer readBody(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = readFully(channel, offset, HEADER_SIZE);
+        return readFully(channel, offset + HEADER_SIZE, header.getInt());
+    }
+
+    private static byte[] readFramedRecord(FileChannel channel, long offset) throws IOException {
+        int length = readFully(channel, offset, HEADER_SIZE).getInt();
+        return readFully(channel, offset, HEADER_SIZE + length).array();
+    }
+
+    // Positional reads don't change the position of the channel, which is used for appending records.
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0)
+                throw new EOFException();
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Record readRecord(ByteBuffer buffer) {
+        byte type = buffer.get();
+        String world = readString(buffer);
+
+        if (type == DELETE_WORLD)
+            return Record.deleteWorld(world);
+
+        int x = buffer.getInt(), y = buffer.getInt(), z = buffer.getInt();
+
+        if (type == DELETE)
+            return Record.delete(world, x, y, z);
+
+        int stackAmount = buffer.getInt();
+        int upgradeId = buffer.getInt();
+        String item = readString(buffer);
+
+        return Record.put(world, x, y, z, stackAmount, upgradeId, item);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static final class Record {
+
+        private final byte type;
+        private final String world;
+        private final int x, y, z;
+        private final int stackAmount;
+        private final int upgradeId;
+        private final String item;
+
+        private Record(byte type, String world, int x, int y, int z, int stackAmount, int upgradeId, String item) {
+            this.type = type;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.stackAmount = stackAmount;
+            this.upgradeId = upgradeId;
+            this.item = item;
+        }
+
+        static Record put(String world, int x, int y, int z, int stackAmount, int upgradeId, String item) {
+            return new Record(PUT, world, x, y, z, stackAmount, upgradeId, item == null ? "" : item);
+        }
+
+        static Record delete(String world, int x, int y, int z) {
+            return new Record(DELETE, world, x, y, z, 0, 0, "");
+        }
+
+        static Record deleteWorld(String world) {
+            return new Record(DELETE_WORLD, world, 0, 0, 0, 0, 0, "");
+        }
+
+        String getWorld() {
+            return world;
+        }
+
+        int getX() {
+            return x;
+        }
+
+        int getY() {
+            return y;
+        }
+
+        int getZ() {
+            return z;
+        }
+
+        int getStackAmount() {
+            return stackAmount;
+        }
+
+        int getUpgradeId() {
+            return upgradeId;
+        }
+
+        String getItem() {
+            return item;
+        }
+
+        private ChunkPosition getChunkPosition() {
+            return new ChunkPosition(world, x >> 4, z >> 4);
+        }
+
+        private long getBlockKey() {
+            return PositionKeys.getBlockKey(x, y, z);
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeByte(type);
+            writeString(output, world);
+
+            if (type == DELETE_WORLD)
+                return;
+
+            output.writeInt(x);
+            output.writeInt(y);
+            output.writeInt(z);
+
+            if (type == DELETE)
+                return;
+
+            output.writeInt(stackAmount);
+            output.writeInt(upgradeId);
+            writeString(output, item);
+        }
+
+    }
+
+}
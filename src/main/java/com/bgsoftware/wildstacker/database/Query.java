@@ -2,11 +2,13 @@ package com.bgsoftware.wildstacker.database;
 
 public enum Query {
 
-    SPAWNER_INSERT("REPLACE INTO spawners VALUES(?, ?, ?);", 3),
-    SPAWNER_DELETE("DELETE FROM spawners WHERE location=?;", 1),
+    WORLD_INSERT("INSERT OR IGNORE INTO worlds VALUES(?, ?);", 2),
 
-    BARREL_INSERT("REPLACE INTO barrels VALUES(?, ?, ?);", 3),
-    BARREL_DELETE("DELETE FROM barrels WHERE location=?;", 1);
+    SPAWNER_INSERT("REPLACE INTO stacked_spawners VALUES(?, ?, ?, ?, ?);", 5),
+    SPAWNER_DELETE("DELETE FROM stacked_spawners WHERE world=? AND position=?;", 2),
+
+    BARREL_INSERT("REPLACE INTO stacked_barrels VALUES(?, ?, ?, ?, ?);", 5),
+    BARREL_DELETE("DELETE FROM stacked_barrels WHERE world=? AND position=?;", 2);
 
     private final String query;
     private final int parametersCount;
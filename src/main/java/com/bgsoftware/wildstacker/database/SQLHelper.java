@@ -8,7 +8,12 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 public final class SQLHelper {
@@ -16,6 +21,13 @@ public final class SQLHelper {
     private static final CompletableFuture<Void> ready = new CompletableFuture<>();
     private static final Object mutex = new Object();
 
+    // Statements of the writer connection, prepared once per query. Should only be accessed while holding the mutex.
+    private static final Map<Query, PreparedStatement> cachedStatements = new EnumMap<>(Query.class);
+    // Queries are executed on separate read-only connections, one per thread, so they are never blocked by writes.
+    private static final List<Connection> readConnections = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Connection> readConnection = new ThreadLocal<>();
+
+    private static String connectionURL;
     private static Connection conn;
 
     private SQLHelper() {
@@ -43,7 +55,16 @@ public final class SQLHelper {
         }
 
         File file = new File(plugin.getDataFolder(), "database.db");
-        conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath().replace("\\", "/"));
+        connectionURL = "jdbc:sqlite:" + file.getAbsolutePath().replace("\\", "/");
+        conn = DriverManager.getConnection(connectionURL);
+
+        // With WAL journaling, readers don't block the writer and the writer doesn't block readers.
+        // synchronous=NORMAL only syncs on checkpoints, which is still safe against corruption in WAL mode.
+        executePragma(conn, "journal_mode = WAL");
+        executePragma(conn, "synchronous = NORMAL");
+        executePragma(conn, "cache_size = -16000");
+        executePragma(conn, "temp_store = MEMORY");
+        executePragma(conn, "busy_timeout = 5000");
 
         ready.complete(null);
     }
@@ -59,14 +80,16 @@ public final class SQLHelper {
         if (conn == null)
             return;
 
-        PreparedStatement preparedStatement = null;
-        try {
-            preparedStatement = conn.prepareStatement(statement);
-            preparedStatement.executeUpdate();
-        } catch (SQLException ex) {
-            onError.accept(ex);
-        } finally {
-            close(preparedStatement);
+        synchronized (mutex) {
+            PreparedStatement preparedStatement = null;
+            try {
+                preparedStatement = conn.prepareStatement(statement);
+                preparedStatement.executeUpdate();
+            } catch (SQLException ex) {
+                onError.accept(ex);
+            } finally {
+                close(preparedStatement);
+            }
         }
     }
 
@@ -79,7 +102,7 @@ public final class SQLHelper {
         PreparedStatement preparedStatement = null;
         ResultSet resultSet = null;
         try {
-            preparedStatement = conn.prepareStatement(statement);
+            preparedStatement = getReadConnection().prepareStatement(statement);
             resultSet = preparedStatement.executeQuery();
             ret = resultSet.next();
         } catch (SQLException ex) {
@@ -104,7 +127,7 @@ public final class SQLHelper {
         ResultSet resultSet = null;
 
         try {
-            preparedStatement = conn.prepareStatement(statement);
+            preparedStatement = getReadConnection().prepareStatement(statement);
             resultSet = preparedStatement.executeQuery();
             callback.accept(resultSet);
         } catch (SQLException ex) {
@@ -116,6 +139,21 @@ public final class SQLHelper {
     }
 
     public static void close() {
+        synchronized (mutex) {
+            cachedStatements.values().forEach(SQLHelper::close);
+            cachedStatements.clear();
+        }
+
+        for (Connection readConnection : readConnections) {
+            try {
+                readConnection.close();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        readConnections.clear();
+
         try {
             conn.close();
         } catch (SQLException ex) {
@@ -123,15 +161,80 @@ public final class SQLHelper {
         }
     }
 
-    public static void buildStatement(String query, QueryConsumer<PreparedStatement> consumer, Consumer<SQLException> failure) {
-        PreparedStatement preparedStatement = null;
+    // Should be called while holding the mutex.
+    public static void buildStatement(Query query, QueryConsumer<PreparedStatement> consumer, Consumer<SQLException> failure) {
+        PreparedStatement preparedStatement = cachedStatements.get(query);
+
         try {
-            preparedStatement = conn.prepareStatement(query);
+            if (preparedStatement == null) {
+                preparedStatement = conn.prepareStatement(query.getStatement());
+                cachedStatements.put(query, preparedStatement);
+            }
+
             consumer.accept(preparedStatement);
+            preparedStatement.clearParameters();
         } catch (SQLException ex) {
-            failure.accept(ex);
-        } finally {
+            // The statement may be left in an invalid state, therefore it's prepared again next time.
+            cachedStatements.remove(query);
             close(preparedStatement);
+            failure.accept(ex);
+        }
+    }
+
+    /*
+     * Closes the read connection of the current thread, if it has one.
+     * Should be called by short-lived threads, as their connections are otherwise only closed on shutdown.
+     */
+    public static void closeReadConnection() {
+        Connection connection = readConnection.get();
+
+        if (connection == null)
+            return;
+
+        readConnection.remove();
+
+        if (connection != conn) {
+            readConnections.remove(connection);
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private static Connection getReadConnection() {
+        Connection connection = readConnection.get();
+
+        if (connection == null) {
+            connection = createReadConnection();
+            // The main connection is used by threads that failed to open their own connection.
+            if (connection == null)
+                connection = conn;
+            readConnection.set(connection);
+        }
+
+        return connection;
+    }
+
+    private static Connection createReadConnection() {
+        try {
+            Connection connection = DriverManager.getConnection(connectionURL);
+            executePragma(connection, "query_only = 1");
+            executePragma(connection, "cache_size = -16000");
+            executePragma(connection, "busy_timeout = 5000");
+            readConnections.add(connection);
+            return connection;
+        } catch (SQLException ex) {
+            WildStackerPlugin.log("&cFailed to open a read connection to the database, using the main connection instead:");
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void executePragma(Connection connection, String pragma) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA " + pragma + ";");
         }
     }
 
@@ -157,6 +260,14 @@ public final class SQLHelper {
         conn.commit();
     }
 
+    public static void rollback() {
+        try {
+            conn.rollback();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
     public interface QueryConsumer<T> {
 
         void accept(T value) throws SQLException;
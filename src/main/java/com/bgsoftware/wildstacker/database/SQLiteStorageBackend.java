@@ -0,0 +1,305 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.enums.SpawnCause;
+import com.bgsoftware.wildstacker.utils.chunks.PositionKeys;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public final class SQLiteStorageBackend implements StorageBackend {
+
+    private static final int DATABASE_VERSION = 1;
+
+    private final WildStackerPlugin plugin;
+
+    public SQLiteStorageBackend(WildStackerPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void open() throws SQLException {
+        SQLHelper.createConnection(plugin);
+
+        //Creating worlds table
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS worlds (id INTEGER PRIMARY KEY, name VARCHAR UNIQUE);");
+
+        //Creating default spawners table
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS stacked_spawners (world INTEGER, position BIGINT, chunk BIGINT, " +
+                "stackAmount INTEGER, upgrade INTEGER, PRIMARY KEY (world, position));");
+        SQLHelper.executeUpdate("CREATE INDEX IF NOT EXISTS stacked_spawners_chunks ON stacked_spawners (world, chunk);");
+
+        //Creating default barrels table
+        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS stacked_barrels (world INTEGER, position BIGINT, chunk BIGINT, " +
+                "stackAmount INTEGER, item VARCHAR, PRIMARY KEY (world, position));");
+        SQLHelper.executeUpdate("CREATE INDEX IF NOT EXISTS stacked_barrels_chunks ON stacked_barrels (world, chunk);");
+
+        WorldsRegistry.loadWorlds();
+
+        if (getDatabaseVersion() < DATABASE_VERSION) {
+            // Adding upgrade column to old spawners tables if it doesn't exist
+            if (doesTableExist("spawners"))
+                addColumnIfNotExists("upgrade", "spawners", "0", "INTEGER");
+
+            boolean migratedSpawners = migrateLegacyTable("spawners", Query.SPAWNER_INSERT, (statementHolder, resultSet) ->
+                    statementHolder.setInt(resultSet.getInt("upgrade")));
+            boolean migratedBarrels = migrateLegacyTable("barrels", Query.BARREL_INSERT, (statementHolder, resultSet) ->
+                    statementHolder.setString(resultSet.getString("item")));
+
+            if (migratedSpawners && migratedBarrels)
+                SQLHelper.executeUpdate("PRAGMA user_version = " + DATABASE_VERSION + ";");
+        }
+    }
+
+    @Override
+    public void close() {
+        SQLHelper.close();
+    }
+
+    @Override
+    public void loadEntities(EntityConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM entities;", resultSet -> {
+            while (resultSet.next()) {
+                int stackAmount = resultSet.getInt("stackAmount");
+                SpawnCause spawnCause = SpawnCause.matchCause(resultSet.getString("spawnCause"));
+                UUID uuid = UUID.fromString(resultSet.getString("uuid"));
+                consumer.accept(uuid, stackAmount, spawnCause);
+            }
+        }, ex -> {
+        });
+    }
+
+    @Override
+    public void loadItems(ItemConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM items;", resultSet -> {
+            while (resultSet.next()) {
+                int stackAmount = resultSet.getInt("stackAmount");
+                UUID uuid = UUID.fromString(resultSet.getString("uuid"));
+                consumer.accept(uuid, stackAmount);
+            }
+        }, ex -> {
+        });
+    }
+
+    @Override
+    public void loadSpawners(SpawnerConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM stacked_spawners;", resultSet -> {
+            while (resultSet.next())
+                loadSpawner(resultSet, consumer);
+        });
+    }
+
+    @Override
+    public void loadSpawners(String world, int chunkX, int chunkZ, SpawnerConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM stacked_spawners" + getChunkCondition(world, chunkX, chunkZ), resultSet -> {
+            while (resultSet.next())
+                loadSpawner(resultSet, consumer);
+        });
+    }
+
+    @Override
+    public void loadSpawnersChunks(ChunkConsumer consumer) {
+        loadChunks("stacked_spawners", consumer);
+    }
+
+    @Override
+    public void loadBarrels(BarrelConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM stacked_barrels;", resultSet -> {
+            while (resultSet.next())
+                loadBarrel(resultSet, consumer);
+        });
+    }
+
+    @Override
+    public void loadBarrels(String world, int chunkX, int chunkZ, BarrelConsumer consumer) {
+        SQLHelper.executeQuery("SELECT * FROM stacked_barrels" + getChunkCondition(world, chunkX, chunkZ), resultSet -> {
+            while (resultSet.next())
+                loadBarrel(resultSet, consumer);
+        });
+    }
+
+    @Override
+    public void loadBarrelsChunks(ChunkConsumer consumer) {
+        loadChunks("stacked_barrels", consumer);
+    }
+
+    @Override
+    public boolean saveObjects(List<SpawnerSnapshot> spawnerSnapshots, List<BarrelSnapshot> barrelSnapshots) {
+        // Spawners and barrels are written as one batch per table, inside a single transaction.
+        StatementHolder spawnersStatement = Query.SPAWNER_INSERT.getStatementHolder();
+        StatementHolder barrelsStatement = Query.BARREL_INSERT.getStatementHolder();
+        spawnersStatement.prepareBatch();
+        barrelsStatement.prepareBatch();
+
+        for (SpawnerSnapshot spawnerSnapshot : spawnerSnapshots) {
+            spawnersStatement.setLocation(spawnerSnapshot)
+                    .setChunk(spawnerSnapshot)
+                    .setInt(spawnerSnapshot.getStackAmount())
+                    .setInt(spawnerSnapshot.getUpgradeId())
+                    .addBatch();
+        }
+
+        for (BarrelSnapshot barrelSnapshot : barrelSnapshots) {
+            barrelsStatement.setLocation(barrelSnapshot)
+                    .setChunk(barrelSnapshot)
+                    .setInt(barrelSnapshot.getStackAmount())
+                    .setItemStack(barrelSnapshot.getBarrelItem())
+                    .addBatch();
+        }
+
+        return StatementHolder.executeBatches(false, spawnersStatement, barrelsStatement);
+    }
+
+    @Override
+    public void deleteSpawner(String world, int x, int y, int z) {
+        Query.SPAWNER_DELETE.getStatementHolder().setLocation(world, x, y, z).execute(false);
+    }
+
+    @Override
+    public void deleteSpawners(String world) {
+        SQLHelper.executeUpdate("DELETE FROM stacked_spawners WHERE world = " + WorldsRegistry.getWorldId(world) + ";");
+    }
+
+    @Override
+    public void deleteBarrel(String world, int x, int y, int z) {
+        Query.BARREL_DELETE.getStatementHolder().setLocation(world, x, y, z).execute(false);
+    }
+
+    @Override
+    public void deleteBarrels(String world) {
+        SQLHelper.executeUpdate("DELETE FROM stacked_barrels WHERE world = " + WorldsRegistry.getWorldId(world) + ";");
+    }
+
+    private static void loadSpawner(ResultSet resultSet, SpawnerConsumer consumer) throws SQLException {
+        String world = WorldsRegistry.getWorldName(resultSet.getInt("world"));
+
+        if (world == null)
+            return;
+
+        long blockKey = resultSet.getLong("position");
+        consumer.accept(world, PositionKeys.getBlockX(blockKey), PositionKeys.getBlockY(blockKey),
+                PositionKeys.getBlockZ(blockKey), resultSet.getInt("stackAmount"), resultSet.getInt("upgrade"));
+    }
+
+    private static void loadBarrel(ResultSet resultSet, BarrelConsumer consumer) throws SQLException {
+        String world = WorldsRegistry.getWorldName(resultSet.getInt("world"));
+
+        if (world == null)
+            return;
+
+        long blockKey = resultSet.getLong("position");
+        consumer.accept(world, PositionKeys.getBlockX(blockKey), PositionKeys.getBlockY(blockKey),
+                PositionKeys.getBlockZ(blockKey), resultSet.getInt("stackAmount"), resultSet.getString("item"));
+    }
+
+    private static void loadChunks(String table, ChunkConsumer consumer) {
+        SQLHelper.executeQuery("SELECT DISTINCT world, chunk FROM " + table + ";", resultSet -> {
+            while (resultSet.next()) {
+                String world = WorldsRegistry.getWorldName(resultSet.getInt("world"));
+
+                if (world != null) {
+                    long chunkKey = resultSet.getLong("chunk");
+                    consumer.accept(world, PositionKeys.getChunkX(chunkKey), PositionKeys.getChunkZ(chunkKey));
+                }
+            }
+        });
+    }
+
+    private static String getChunkCondition(String world, int chunkX, int chunkZ) {
+        return " WHERE world = " + WorldsRegistry.getWorldId(world) + " AND chunk = " + PositionKeys.getChunkKey(chunkX, chunkZ) + ";";
+    }
+
+    private static void addColumnIfNotExists(String column, String table, String def, String type) {
+        String defaultSection = " DEFAULT " + def;
+
+        String statementStr = "ALTER TABLE " + table + " ADD " + column + " " + type + defaultSection + ";";
+
+        SQLHelper.executeUpdate(statementStr, ex -> {
+            if (!ex.getMessage().toLowerCase().contains("duplicate")) {
+                System.out.println("Statement: " + statementStr);
+                ex.printStackTrace();
+            }
+        });
+    }
+
+    private static int getDatabaseVersion() {
+        int[] databaseVersion = new int[]{0};
+
+        SQLHelper.executeQuery("PRAGMA user_version;", resultSet -> {
+            if (resultSet.next())
+                databaseVersion[0] = resultSet.getInt(1);
+        });
+
+        return databaseVersion[0];
+    }
+
+    private static boolean doesTableExist(String table) {
+        return SQLHelper.doesConditionExist("SELECT name FROM sqlite_master WHERE type='table' AND name='" + table + "';");
+    }
+
+    private static boolean migrateLegacyTable(String table, Query insertQuery, LegacyRowConverter rowConverter) {
+        if (!doesTableExist(table))
+            return true;
+
+        long startTime = System.currentTimeMillis();
+        WildStackerPlugin.log("Starting to migrate " + table + " to the new database format...");
+
+        StatementHolder statementHolder = insertQuery.getStatementHolder();
+        statementHolder.prepareBatch();
+
+        // Rows that can't be migrated are kept in a quarantine table, so they are not lost when the old table is dropped.
+        List<Long> quarantinedRows = new ArrayList<>();
+
+        SQLHelper.executeQuery("SELECT rowid AS legacy_row, * FROM " + table + ";", resultSet -> {
+            while (resultSet.next()) {
+                String location = resultSet.getString("location");
+                String[] locationSections = location.split(",");
+
+                try {
+                    int x = Integer.parseInt(locationSections[1]);
+                    int y = Integer.parseInt(locationSections[2]);
+                    int z = Integer.parseInt(locationSections[3]);
+                    statementHolder.setLocation(locationSections[0], x, y, z)
+                            .setChunk(x >> 4, z >> 4)
+                            .setInt(resultSet.getInt("stackAmount"));
+                    rowConverter.convert(statementHolder, resultSet);
+                    statementHolder.addBatch();
+                } catch (Exception ex) {
+                    WildStackerPlugin.log("Couldn't migrate " + location + " from " + table + ", keeping it in " +
+                            table + "_quarantine.");
+                    quarantinedRows.add(resultSet.getLong("legacy_row"));
+                }
+            }
+        });
+
+        List<String> updates = new ArrayList<>();
+
+        if (!quarantinedRows.isEmpty()) {
+            updates.add("CREATE TABLE IF NOT EXISTS " + table + "_quarantine AS SELECT * FROM " + table + " WHERE 0;");
+            updates.add("INSERT INTO " + table + "_quarantine SELECT * FROM " + table + " WHERE rowid IN (" +
+                    quarantinedRows.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ");");
+        }
+
+        updates.add("DROP TABLE " + table + ";");
+
+        // The migrated rows, the quarantined rows and the drop of the old table are committed together.
+        if (StatementHolder.executeBatches(false, updates, statementHolder)) {
+            WildStackerPlugin.log("Migrating " + table + " done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+            return true;
+        }
+
+        WildStackerPlugin.log("&cFailed to migrate " + table + ", the old table was kept.");
+        return false;
+    }
+
+    private interface LegacyRowConverter {
+
+        void convert(StatementHolder statementHolder, ResultSet resultSet) throws SQLException;
+
+    }
+
+}
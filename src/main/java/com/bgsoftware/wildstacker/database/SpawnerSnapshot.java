@@ -0,0 +1,19 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
+import com.bgsoftware.wildstacker.objects.WStackedSpawner;
+
+public final class SpawnerSnapshot extends StackedObjectSnapshot {
+
+    private final int upgradeId;
+
+    public SpawnerSnapshot(StackedSpawner stackedSpawner) {
+        super(stackedSpawner);
+        this.upgradeId = ((WStackedSpawner) stackedSpawner).getUpgradeId();
+    }
+
+    public int getUpgradeId() {
+        return upgradeId;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.api.objects.StackedObject;
+import org.bukkit.Location;
+
+public abstract class StackedObjectSnapshot {
+
+    private final String world;
+    private final int x, y, z;
+    private final int stackAmount;
+
+    protected StackedObjectSnapshot(StackedObject<?> stackedObject) {
+        Location location = stackedObject.getLocation();
+        this.world = location.getWorld().getName();
+        this.x = location.getBlockX();
+        this.y = location.getBlockY();
+        this.z = location.getBlockZ();
+        this.stackAmount = stackedObject.getStackAmount();
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public int getStackAmount() {
+        return stackAmount;
+    }
+
+}
@@ -1,13 +1,17 @@
 package com.bgsoftware.wildstacker.database;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.chunks.PositionKeys;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,64 +21,143 @@ public final class StatementHolder {
 
     private static final EnumMap<Query, IncreasableInteger> queryCalls = new EnumMap<>(Query.class);
 
-    private final List<Map<Integer, Object>> batches = new ArrayList<>();
+    private final List<Object[]> batches = new ArrayList<>();
 
     private final String query;
     private final Query queryEnum;
-    private final Map<Integer, Object> values = new HashMap<>();
-    private int currentIndex = 1;
+    // Values are bound by their position in the statement, starting from index 0.
+    private Object[] values;
+    private int currentIndex = 0;
 
     private boolean isBatch = false;
 
     StatementHolder(Query query) {
         this.queryEnum = query;
         this.query = query.getStatement();
+        this.values = new Object[query.getParametersCount()];
     }
 
     public static EnumMap<Query, IncreasableInteger> getQueryCalls() {
         return queryCalls;
     }
 
+    public static boolean executeBatches(boolean async, StatementHolder... statementHolders) {
+        return executeBatches(async, Collections.emptyList(), statementHolders);
+    }
+
+    // Executes the batches of all the given statements and then the given updates, inside a single transaction.
+    // New worlds are written in the same transaction, so rows never reference worlds that were not written.
+    // Returns false if the batches were executed on the calling thread and were rolled back.
+    public static boolean executeBatches(boolean async, List<String> updates, StatementHolder... statementHolders) {
+        if (updates.isEmpty() && Arrays.stream(statementHolders).allMatch(statementHolder -> statementHolder.batches.isEmpty()))
+            return true;
+
+        if (async && !Executor.isDataThread()) {
+            Executor.data(() -> executeBatches(false, updates, statementHolders));
+            return true;
+        }
+
+        SQLHelper.waitForConnection();
+
+        boolean success = true;
+
+        synchronized (SQLHelper.getMutex()) {
+            Map<Integer, String> newWorlds = WorldsRegistry.pollPendingWorlds();
+
+            SQLHelper.setAutoCommit(false);
+
+            try {
+                if (!newWorlds.isEmpty()) {
+                    StatementHolder worldsStatement = Query.WORLD_INSERT.getStatementHolder();
+                    newWorlds.forEach((worldId, worldName) -> worldsStatement.setInt(worldId).setString(worldName).addBatch());
+                    worldsStatement.executeBatch();
+                }
+
+                for (StatementHolder statementHolder : statementHolders)
+                    statementHolder.executeBatch();
+
+                SQLException[] failure = new SQLException[1];
+
+                for (String update : updates) {
+                    SQLHelper.executeUpdate(update, ex -> failure[0] = ex);
+                    if (failure[0] != null)
+                        throw failure[0];
+                }
+
+                SQLHelper.commit();
+            } catch (SQLException ex) {
+                WildStackerPlugin.log("&cFailed to execute batched queries, rolling back...");
+                ex.printStackTrace();
+                SQLHelper.rollback();
+                WorldsRegistry.restorePendingWorlds(newWorlds);
+                success = false;
+            } finally {
+                SQLHelper.setAutoCommit(true);
+            }
+        }
+
+        return success;
+    }
+
     public StatementHolder setString(String value) {
-        values.put(currentIndex++, value);
+        values[currentIndex++] = value;
         return this;
     }
 
     public StatementHolder setInt(int value) {
-        values.put(currentIndex++, value);
+        values[currentIndex++] = value;
         return this;
     }
 
     public StatementHolder setShort(short value) {
-        values.put(currentIndex++, value);
+        values[currentIndex++] = value;
         return this;
     }
 
     public StatementHolder setDouble(double value) {
-        values.put(currentIndex++, value);
+        values[currentIndex++] = value;
         return this;
     }
 
     public StatementHolder setBoolean(boolean value) {
-        values.put(currentIndex++, value);
+        values[currentIndex++] = value;
         return this;
     }
 
     public StatementHolder setItemStack(ItemStack itemStack) {
-        values.put(currentIndex++, itemStack == null ? "" : plugin.getNMSAdapter().serialize(itemStack));
+        values[currentIndex++] = itemStack == null ? "" : plugin.getNMSAdapter().serialize(itemStack);
         return this;
     }
 
-    public StatementHolder setLocation(Location loc) {
-        values.put(currentIndex++, loc == null ? "" : loc.getWorld().getName() + "," + loc.getBlockX() + "," +
-                loc.getBlockY() + "," + loc.getBlockZ());
+    public StatementHolder setLong(long value) {
+        values[currentIndex++] = value;
         return this;
     }
 
+    public StatementHolder setLocation(Location loc) {
+        return setLocation(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    public StatementHolder setLocation(StackedObjectSnapshot snapshot) {
+        return setLocation(snapshot.getWorld(), snapshot.getX(), snapshot.getY(), snapshot.getZ());
+    }
+
+    public StatementHolder setLocation(String world, int x, int y, int z) {
+        return setInt(WorldsRegistry.getWorldId(world)).setLong(PositionKeys.getBlockKey(x, y, z));
+    }
+
+    public StatementHolder setChunk(StackedObjectSnapshot snapshot) {
+        return setChunk(snapshot.getX() >> 4, snapshot.getZ() >> 4);
+    }
+
+    public StatementHolder setChunk(int chunkX, int chunkZ) {
+        return setLong(PositionKeys.getChunkKey(chunkX, chunkZ));
+    }
+
     public void addBatch() {
-        batches.add(new HashMap<>(values));
-        values.clear();
-        currentIndex = 1;
+        batches.add(values);
+        values = new Object[queryEnum.getParametersCount()];
+        currentIndex = 0;
     }
 
     public void prepareBatch() {
@@ -90,11 +173,9 @@ public final class StatementHolder {
         SQLHelper.waitForConnection();
 
         try {
-            StringHolder errorQuery = new StringHolder(query);
-
             synchronized (SQLHelper.getMutex()) {
                 queryCalls.computeIfAbsent(queryEnum, q -> new IncreasableInteger()).increase();
-                SQLHelper.buildStatement(query, preparedStatement -> {
+                SQLHelper.buildStatement(queryEnum, preparedStatement -> {
                     if (isBatch) {
                         if (batches.isEmpty()) {
                             isBatch = false;
@@ -103,50 +184,76 @@ public final class StatementHolder {
 
                         SQLHelper.setAutoCommit(false);
 
-                        for (Map<Integer, Object> values : batches) {
-                            for (Map.Entry<Integer, Object> entry : values.entrySet()) {
-                                preparedStatement.setObject(entry.getKey(), entry.getValue());
-                                errorQuery.value = errorQuery.value.replaceFirst("\\?", entry.getValue() + "");
-                            }
-                            preparedStatement.addBatch();
-                        }
-
-                        preparedStatement.executeBatch();
                         try {
+                            bindBatches(preparedStatement);
+                            preparedStatement.executeBatch();
                             SQLHelper.commit();
-                        } catch (Throwable ignored) {
+                        } finally {
+                            batches.clear();
+                            SQLHelper.setAutoCommit(true);
                         }
-
-                        SQLHelper.setAutoCommit(true);
                     } else {
-                        for (Map.Entry<Integer, Object> entry : values.entrySet()) {
-                            preparedStatement.setObject(entry.getKey(), entry.getValue());
-                            errorQuery.value = errorQuery.value.replaceFirst("\\?", entry.getValue() + "");
-                        }
+                        bindValues(preparedStatement, values);
                         preparedStatement.executeUpdate();
                     }
                 }, ex -> {
-                    WildStackerPlugin.log("&cFailed to execute query " + errorQuery);
+                    WildStackerPlugin.log("&cFailed to execute query " + getErrorQuery());
                     ex.printStackTrace();
                 });
             }
         } finally {
-            values.clear();
+            Arrays.fill(values, null);
+            currentIndex = 0;
         }
     }
 
-    private static class StringHolder {
+    private void executeBatch() throws SQLException {
+        if (batches.isEmpty())
+            return;
+
+        int batchSize = batches.size();
+        SQLException[] failure = new SQLException[1];
+
+        queryCalls.computeIfAbsent(queryEnum, q -> new IncreasableInteger()).increase();
 
-        private String value;
+        SQLHelper.buildStatement(queryEnum, preparedStatement -> {
+            bindBatches(preparedStatement);
+            preparedStatement.executeBatch();
+        }, ex -> {
+            WildStackerPlugin.log("&cFailed to execute batched query " + query + " (" + batchSize + " rows)");
+            failure[0] = ex;
+        });
+
+        batches.clear();
+
+        if (failure[0] != null)
+            throw failure[0];
+    }
 
-        StringHolder(String value) {
-            this.value = value;
+    private void bindBatches(PreparedStatement preparedStatement) throws SQLException {
+        for (Object[] values : batches) {
+            bindValues(preparedStatement, values);
+            preparedStatement.addBatch();
         }
+    }
 
-        @Override
-        public String toString() {
-            return value;
+    private static void bindValues(PreparedStatement preparedStatement, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++)
+            preparedStatement.setObject(i + 1, values[i]);
+    }
+
+    private String getErrorQuery() {
+        StringBuilder errorQuery = new StringBuilder();
+        int valueIndex = 0;
+
+        for (char ch : query.toCharArray()) {
+            if (ch == '?' && valueIndex < values.length)
+                errorQuery.append(values[valueIndex++]);
+            else
+                errorQuery.append(ch);
         }
+
+        return errorQuery.toString();
     }
 
     public static final class IncreasableInteger {
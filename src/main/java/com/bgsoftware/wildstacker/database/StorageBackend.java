@@ -0,0 +1,71 @@
+package com.bgsoftware.wildstacker.database;
+
+import com.bgsoftware.wildstacker.api.enums.SpawnCause;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface StorageBackend {
+
+    void open() throws Exception;
+
+    void close();
+
+    void loadEntities(EntityConsumer consumer);
+
+    void loadItems(ItemConsumer consumer);
+
+    void loadSpawners(SpawnerConsumer consumer);
+
+    void loadSpawners(String world, int chunkX, int chunkZ, SpawnerConsumer consumer);
+
+    void loadSpawnersChunks(ChunkConsumer consumer);
+
+    void loadBarrels(BarrelConsumer consumer);
+
+    void loadBarrels(String world, int chunkX, int chunkZ, BarrelConsumer consumer);
+
+    void loadBarrelsChunks(ChunkConsumer consumer);
+
+    // Returns false if the snapshots couldn't be saved.
+    boolean saveObjects(List<SpawnerSnapshot> spawnerSnapshots, List<BarrelSnapshot> barrelSnapshots);
+
+    void deleteSpawner(String world, int x, int y, int z);
+
+    void deleteSpawners(String world);
+
+    void deleteBarrel(String world, int x, int y, int z);
+
+    void deleteBarrels(String world);
+
+    interface EntityConsumer {
+
+        void accept(UUID uuid, int stackAmount, SpawnCause spawnCause);
+
+    }
+
+    interface ItemConsumer {
+
+        void accept(UUID uuid, int stackAmount);
+
+    }
+
+    interface SpawnerConsumer {
+
+        void accept(String world, int x, int y, int z, int stackAmount, int upgradeId);
+
+    }
+
+    interface BarrelConsumer {
+
+        void accept(String world, int x, int y, int z, int stackAmount, String item);
+
+    }
+
+    interface ChunkConsumer {
+
+        void accept(String world, int chunkX, int chunkZ);
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.bgsoftware.wildstacker.database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class WorldsRegistry {
+
+    private static final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    private static final Map<Integer, String> worldNames = new ConcurrentHashMap<>();
+    // New worlds are written to the database inside the transaction of the first rows that use them.
+    private static final Map<Integer, String> pendingWorlds = new LinkedHashMap<>();
+
+    private static int nextWorldId = 1;
+
+    private WorldsRegistry() {
+
+    }
+
+    public static void loadWorlds() {
+        SQLHelper.executeQuery("SELECT * FROM worlds;", resultSet -> {
+            while (resultSet.next())
+                registerWorld(resultSet.getInt("id"), resultSet.getString("name"));
+        });
+    }
+
+    public static int getWorldId(String worldName) {
+        Integer worldId = worldIds.get(worldName);
+        return worldId != null ? worldId : createWorldId(worldName);
+    }
+
+    public static String getWorldName(int worldId) {
+        return worldNames.get(worldId);
+    }
+
+    private static synchronized int createWorldId(String worldName) {
+        Integer worldId = worldIds.get(worldName);
+
+        if (worldId != null)
+            return worldId;
+
+        int newWorldId = nextWorldId;
+        registerWorld(newWorldId, worldName);
+        pendingWorlds.put(newWorldId, worldName);
+
+        return newWorldId;
+    }
+
+    static synchronized Map<Integer, String> pollPendingWorlds() {
+        Map<Integer, String> newWorlds = new LinkedHashMap<>(pendingWorlds);
+        pendingWorlds.clear();
+        return newWorlds;
+    }
+
+    // Called when the transaction that should have written the worlds was rolled back.
+    static synchronized void restorePendingWorlds(Map<Integer, String> newWorlds) {
+        pendingWorlds.putAll(newWorlds);
+    }
+
+    private static synchronized void registerWorld(int worldId, String worldName) {
+        worldIds.put(worldName, worldId);
+        worldNames.put(worldId, worldName);
+        nextWorldId = Math.max(nextWorldId, worldId + 1);
+    }
+
+}
@@ -9,13 +9,22 @@ import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.database.BarrelSnapshot;
+import com.bgsoftware.wildstacker.database.LogStorageBackend;
 import com.bgsoftware.wildstacker.database.SQLHelper;
+import com.bgsoftware.wildstacker.database.SQLiteStorageBackend;
+import com.bgsoftware.wildstacker.database.SpawnerSnapshot;
+import com.bgsoftware.wildstacker.database.StorageBackend;
 import com.bgsoftware.wildstacker.listeners.ChunksListener;
 import com.bgsoftware.wildstacker.objects.WStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WStackedSpawner;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.tasks.ChunkLoadTask;
 import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import com.bgsoftware.wildstacker.utils.chunks.PositionKeys;
+import com.bgsoftware.wildstacker.utils.data.structures.ConcurrentIntMap;
+import com.bgsoftware.wildstacker.utils.data.structures.WorldPositionsMap;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.google.common.collect.Maps;
@@ -24,25 +33,32 @@ import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @SuppressWarnings({"WeakerAccess", "all"})
 public final class DataHandler {
 
-    public final Map<UUID, StackedItem> CACHED_ITEMS = new ConcurrentHashMap<>();
-    public final Map<UUID, StackedEntity> CACHED_ENTITIES = new ConcurrentHashMap<>();
-    public final Map<Location, StackedSpawner> CACHED_SPAWNERS = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Set<StackedSpawner>> CACHED_SPAWNERS_BY_CHUNKS = new ConcurrentHashMap<>();
-    public final Map<Location, StackedBarrel> CACHED_BARRELS = new ConcurrentHashMap<>();
-    public final Map<ChunkPosition, Set<StackedBarrel>> CACHED_BARRELS_BY_CHUNKS = new ConcurrentHashMap<>();
+    // Stacked items and entities are cached by their entity ids.
+    public final ConcurrentIntMap<StackedItem> CACHED_ITEMS = new ConcurrentIntMap<>();
+    public final ConcurrentIntMap<StackedEntity> CACHED_ENTITIES = new ConcurrentIntMap<>();
+    // Stacked spawners and barrels are cached by their block keys, and by their chunk keys.
+    public final WorldPositionsMap<StackedSpawner> CACHED_SPAWNERS = new WorldPositionsMap<>();
+    public final WorldPositionsMap<Set<StackedSpawner>> CACHED_SPAWNERS_BY_CHUNKS = new WorldPositionsMap<>();
+    public final WorldPositionsMap<StackedBarrel> CACHED_BARRELS = new WorldPositionsMap<>();
+    public final WorldPositionsMap<Set<StackedBarrel>> CACHED_BARRELS_BY_CHUNKS = new WorldPositionsMap<>();
     public final Set<StackedObject> OBJECTS_TO_SAVE = Sets.newConcurrentHashSet();
     //References for all the data from database
     public final Map<UUID, Integer> CACHED_ITEMS_RAW = new ConcurrentHashMap<>();
@@ -50,7 +66,20 @@ public final class DataHandler {
     public final Map<ChunkPosition, Map<Location, UnloadedStackedSpawner>> CACHED_SPAWNERS_RAW = new ConcurrentHashMap<>();
     public final Map<ChunkPosition, Map<Location, UnloadedStackedBarrel>> CACHED_BARRELS_RAW = new ConcurrentHashMap<>();
     public final Set<UUID> CACHED_DEAD_ENTITIES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    //Chunks with data in database that wasn't loaded yet (when lazy-loading is enabled)
+    public final Set<ChunkPosition> LAZY_SPAWNERS_CHUNKS = ConcurrentHashMap.newKeySet();
+    public final Set<ChunkPosition> LAZY_BARRELS_CHUNKS = ConcurrentHashMap.newKeySet();
+    // Spawners by the entity ids of their linked entities.
+    private final ConcurrentIntMap<Set<StackedSpawner>> spawnersByLinkedEntities = new ConcurrentIntMap<>();
+    // Tables that finished loading. Loaded chunks only handle the data of these tables.
+    private final Set<String> loadedTables = ConcurrentHashMap.newKeySet();
+    // Chunks that were handled before a table was loaded, by the table. Should only be accessed from the main thread.
+    private final Map<String, Set<ChunkPosition>> chunksToReplay = new HashMap<>();
     private WildStackerPlugin plugin;
+    private StorageBackend storageBackend;
+    private boolean lazyLoading = false;
+    private volatile int lastFlushSize = 0;
+    private volatile long lastFlushDuration = 0;
 
     public DataHandler(WildStackerPlugin plugin) {
         this.plugin = plugin;
@@ -58,7 +87,8 @@ public final class DataHandler {
         Executor.sync(() -> {
             try {
                 //Database.start(new File(plugin.getDataFolder(), "database.db"));
-                SQLHelper.createConnection(plugin);
+                storageBackend = createStorageBackend(plugin);
+                storageBackend.open();
                 loadDatabase();
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -68,53 +98,188 @@ public final class DataHandler {
         }, 1L);
     }
 
-    private static void addColumnIfNotExists(String column, String table, String def, String type) {
-        String defaultSection = " DEFAULT " + def;
+    public void clearDatabase() {
+        //Database.stop();
+        if (storageBackend != null)
+            storageBackend.close();
+    }
 
-        String statementStr = "ALTER TABLE " + table + " ADD " + column + " " + type + defaultSection + ";";
+    // Returns false if the snapshots couldn't be saved, in which case none of them were saved.
+    public boolean saveObjects(List<SpawnerSnapshot> spawnerSnapshots, List<BarrelSnapshot> barrelSnapshots) {
+        long startTime = System.currentTimeMillis();
 
-        SQLHelper.executeUpdate(statementStr, ex -> {
-            if (!ex.getMessage().toLowerCase().contains("duplicate")) {
-                System.out.println("Statement: " + statementStr);
-                ex.printStackTrace();
-            }
-        });
+        if (!storageBackend.saveObjects(spawnerSnapshots, barrelSnapshots))
+            return false;
+
+        lastFlushSize = spawnerSnapshots.size() + barrelSnapshots.size();
+        lastFlushDuration = System.currentTimeMillis() - startTime;
+
+        return true;
     }
 
-    public void clearDatabase() {
-        //Database.stop();
-        SQLHelper.close();
+    public void deleteSpawner(Location location) {
+        String world = location.getWorld().getName();
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        Executor.data(() -> storageBackend.deleteSpawner(world, x, y, z));
+    }
+
+    public void deleteBarrel(Location location) {
+        String world = location.getWorld().getName();
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        Executor.data(() -> storageBackend.deleteBarrel(world, x, y, z));
+    }
+
+    public int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    public long getLastFlushDuration() {
+        return lastFlushDuration;
+    }
+
+    public StackedSpawner getStackedSpawner(Location location) {
+        return CACHED_SPAWNERS.get(location.getWorld().getName(), PositionKeys.getBlockKey(location));
+    }
+
+    public Set<StackedSpawner> getStackedSpawners(String world, int chunkX, int chunkZ) {
+        return CACHED_SPAWNERS_BY_CHUNKS.get(world, PositionKeys.getChunkKey(chunkX, chunkZ));
+    }
+
+    public List<StackedSpawner> getStackedSpawners(Location location, int range) {
+        return getNearbyObjects(CACHED_SPAWNERS_BY_CHUNKS, location, range);
     }
 
     public void addStackedSpawner(StackedSpawner stackedSpawner) {
-        CACHED_SPAWNERS.put(stackedSpawner.getLocation(), stackedSpawner);
-        CACHED_SPAWNERS_BY_CHUNKS.computeIfAbsent(new ChunkPosition(stackedSpawner.getLocation()),
+        Location location = stackedSpawner.getLocation();
+        String world = location.getWorld().getName();
+        CACHED_SPAWNERS.put(world, PositionKeys.getBlockKey(location), stackedSpawner);
+        CACHED_SPAWNERS_BY_CHUNKS.computeIfAbsent(world, PositionKeys.getChunkKey(location),
                 s -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedSpawner);
     }
 
     public void removeStackedSpawner(StackedSpawner stackedSpawner) {
-        CACHED_SPAWNERS.remove(stackedSpawner.getLocation());
-        Set<StackedSpawner> chunkSpawners = CACHED_SPAWNERS_BY_CHUNKS.get(new ChunkPosition(stackedSpawner.getLocation()));
+        Location location = stackedSpawner.getLocation();
+        String world = location.getWorld().getName();
+        CACHED_SPAWNERS.remove(world, PositionKeys.getBlockKey(location));
+        Set<StackedSpawner> chunkSpawners = CACHED_SPAWNERS_BY_CHUNKS.get(world, PositionKeys.getChunkKey(location));
         if (chunkSpawners != null)
             chunkSpawners.remove(stackedSpawner);
+        updateLinkedSpawner(stackedSpawner, null);
         ((WStackedSpawner) stackedSpawner).removeHologram();
     }
 
+    /*
+     * Removes all the spawners of the chunk from the cache at once.
+     * Spawners that should be kept are moved into the raw cache as a single map of the chunk.
+     */
+    public void unloadStackedSpawners(ChunkPosition chunkPosition) {
+        String world = chunkPosition.getWorld();
+        Set<StackedSpawner> chunkSpawners = CACHED_SPAWNERS_BY_CHUNKS.remove(world,
+                PositionKeys.getChunkKey(chunkPosition.getX(), chunkPosition.getZ()));
+
+        if (chunkSpawners == null || chunkSpawners.isEmpty())
+            return;
+
+        Map<Location, UnloadedStackedSpawner> unloadedSpawners = Maps.newConcurrentMap();
+
+        for (StackedSpawner stackedSpawner : chunkSpawners) {
+            Location location = stackedSpawner.getLocation();
+            CACHED_SPAWNERS.remove(world, PositionKeys.getBlockKey(location));
+            updateLinkedSpawner(stackedSpawner, null);
+            ((WStackedSpawner) stackedSpawner).removeHologram();
+            if (stackedSpawner.getStackAmount() > 1 || ((WStackedSpawner) stackedSpawner).getUpgradeId() != 0)
+                unloadedSpawners.put(location, new WUnloadedStackedSpawner(stackedSpawner));
+        }
+
+        if (!unloadedSpawners.isEmpty())
+            CACHED_SPAWNERS_RAW.merge(chunkPosition, unloadedSpawners, DataHandler::mergeUnloadedObjects);
+    }
+
+    public void updateLinkedSpawner(StackedSpawner stackedSpawner, LivingEntity newLinkedEntity) {
+        WStackedSpawner spawner = (WStackedSpawner) stackedSpawner;
+
+        synchronized (spawnersByLinkedEntities) {
+            // The old entity is read under the lock, so concurrent updates can't leave the spawner under a stale entity.
+            LivingEntity oldLinkedEntity = spawner.getRawLinkedEntity();
+
+            if (oldLinkedEntity == newLinkedEntity)
+                return;
+
+            spawner.setRawLinkedEntity(newLinkedEntity);
+
+            if (oldLinkedEntity != null) {
+                Set<StackedSpawner> linkedSpawners = spawnersByLinkedEntities.get(oldLinkedEntity.getEntityId());
+                if (linkedSpawners != null && linkedSpawners.remove(stackedSpawner) && linkedSpawners.isEmpty())
+                    spawnersByLinkedEntities.remove(oldLinkedEntity.getEntityId());
+            }
+
+            if (newLinkedEntity != null)
+                spawnersByLinkedEntities.computeIfAbsent(newLinkedEntity.getEntityId(), id -> new HashSet<>()).add(stackedSpawner);
+        }
+    }
+
+    public List<StackedSpawner> removeLinkedSpawners(LivingEntity linkedEntity) {
+        synchronized (spawnersByLinkedEntities) {
+            Set<StackedSpawner> linkedSpawners = spawnersByLinkedEntities.remove(linkedEntity.getEntityId());
+            return linkedSpawners == null ? Collections.emptyList() : new ArrayList<>(linkedSpawners);
+        }
+    }
+
+    public StackedBarrel getStackedBarrel(Location location) {
+        return CACHED_BARRELS.get(location.getWorld().getName(), PositionKeys.getBlockKey(location));
+    }
+
+    public Set<StackedBarrel> getStackedBarrels(String world, int chunkX, int chunkZ) {
+        return CACHED_BARRELS_BY_CHUNKS.get(world, PositionKeys.getChunkKey(chunkX, chunkZ));
+    }
+
+    public List<StackedBarrel> getStackedBarrels(Location location, int range) {
+        return getNearbyObjects(CACHED_BARRELS_BY_CHUNKS, location, range);
+    }
+
     public void addStackedBarrel(StackedBarrel stackedBarrel) {
-        CACHED_BARRELS.put(stackedBarrel.getLocation(), stackedBarrel);
-        CACHED_BARRELS_BY_CHUNKS.computeIfAbsent(new ChunkPosition(stackedBarrel.getLocation()),
+        Location location = stackedBarrel.getLocation();
+        String world = location.getWorld().getName();
+        CACHED_BARRELS.put(world, PositionKeys.getBlockKey(location), stackedBarrel);
+        CACHED_BARRELS_BY_CHUNKS.computeIfAbsent(world, PositionKeys.getChunkKey(location),
                 s -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(stackedBarrel);
     }
 
     public void removeStackedBarrel(StackedBarrel stackedBarrel) {
-        CACHED_BARRELS.remove(stackedBarrel.getLocation());
-        Set<StackedBarrel> chunkBarrels = CACHED_BARRELS_BY_CHUNKS.get(new ChunkPosition(stackedBarrel.getLocation()));
+        Location location = stackedBarrel.getLocation();
+        String world = location.getWorld().getName();
+        CACHED_BARRELS.remove(world, PositionKeys.getBlockKey(location));
+        Set<StackedBarrel> chunkBarrels = CACHED_BARRELS_BY_CHUNKS.get(world, PositionKeys.getChunkKey(location));
         if (chunkBarrels != null)
             chunkBarrels.remove(stackedBarrel);
         stackedBarrel.removeDisplayBlock();
         ((WStackedBarrel) stackedBarrel).removeHologram();
     }
 
+    /*
+     * Removes all the barrels of the chunk from the cache at once, and moves them into the raw cache as a single map of the chunk.
+     */
+    public void unloadStackedBarrels(ChunkPosition chunkPosition) {
+        String world = chunkPosition.getWorld();
+        Set<StackedBarrel> chunkBarrels = CACHED_BARRELS_BY_CHUNKS.remove(world,
+                PositionKeys.getChunkKey(chunkPosition.getX(), chunkPosition.getZ()));
+
+        if (chunkBarrels == null || chunkBarrels.isEmpty())
+            return;
+
+        Map<Location, UnloadedStackedBarrel> unloadedBarrels = Maps.newConcurrentMap();
+
+        for (StackedBarrel stackedBarrel : chunkBarrels) {
+            Location location = stackedBarrel.getLocation();
+            CACHED_BARRELS.remove(world, PositionKeys.getBlockKey(location));
+            stackedBarrel.removeDisplayBlock();
+            ((WStackedBarrel) stackedBarrel).removeHologram();
+            unloadedBarrels.put(location, new WUnloadedStackedBarrel(stackedBarrel));
+        }
+
+        CACHED_BARRELS_RAW.merge(chunkPosition, unloadedBarrels, DataHandler::mergeUnloadedObjects);
+    }
+
     public List<StackedObject> getStackedObjects() {
         List<StackedObject> stackedObjects = new ArrayList<>();
         stackedObjects.addAll(CACHED_ITEMS.values());
@@ -124,141 +289,330 @@ public final class DataHandler {
         return stackedObjects;
     }
 
-    private void loadDatabase() {
-        //Creating default spawners table
-        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS spawners (location VARCHAR PRIMARY KEY, stackAmount INTEGER, upgrade INTEGER);");
-        // Adding upgrade column if it doesn't exist
-        addColumnIfNotExists("upgrade", "spawners", "0", "INTEGER");
+    private static <T> Map<Location, T> mergeUnloadedObjects(Map<Location, T> currentObjects, Map<Location, T> newObjects) {
+        currentObjects.putAll(newObjects);
+        return currentObjects;
+    }
+
+    private static <T extends StackedObject<?>> List<T> getNearbyObjects(WorldPositionsMap<Set<T>> objectsByChunks,
+                                                                        Location location, int range) {
+        String world = location.getWorld().getName();
+        int minX = location.getBlockX() - range, minY = location.getBlockY() - range, minZ = location.getBlockZ() - range;
+        int maxX = location.getBlockX() + range, maxY = location.getBlockY() + range, maxZ = location.getBlockZ() + range;
+
+        // Chunks in the range that still wait to be handled may have objects that were not loaded yet.
+        ChunkLoadTask.handleChunksNow(world, minX >> 4, minZ >> 4, maxX >> 4, maxZ >> 4);
+
+        // When the range covers more chunks than there are chunks with objects, all of them are checked instead.
+        long chunksAmount = (long) ((maxX >> 4) - (minX >> 4) + 1) * ((maxZ >> 4) - (minZ >> 4) + 1);
+        List<Set<T>> chunksObjects;
+
+        if (chunksAmount > objectsByChunks.size(world)) {
+            chunksObjects = objectsByChunks.values(world);
+        } else {
+            chunksObjects = new ArrayList<>();
+            for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    Set<T> chunkObjects = objectsByChunks.get(world, PositionKeys.getChunkKey(chunkX, chunkZ));
+                    if (chunkObjects != null)
+                        chunksObjects.add(chunkObjects);
+                }
+            }
+        }
 
-        //Creating default barrels table
-        SQLHelper.executeUpdate("CREATE TABLE IF NOT EXISTS barrels (location VARCHAR PRIMARY KEY, stackAmount INTEGER, item VARCHAR);");
+        List<T> nearbyObjects = new ArrayList<>();
+
+        for (Set<T> chunkObjects : chunksObjects) {
+            for (T stackedObject : chunkObjects) {
+                Location objectLocation = stackedObject.getLocation();
+                if (objectLocation.getBlockX() >= minX && objectLocation.getBlockX() <= maxX &&
+                        objectLocation.getBlockY() >= minY && objectLocation.getBlockY() <= maxY &&
+                        objectLocation.getBlockZ() >= minZ && objectLocation.getBlockZ() <= maxZ)
+                    nearbyObjects.add(stackedObject);
+            }
+        }
+
+        return nearbyObjects;
+    }
+
+    private void loadDatabase() {
+        lazyLoading = plugin.getSettings().databaseLazyLoading;
 
         long startTime = System.currentTimeMillis();
 
-        if (plugin.getSettings().storeEntities) {
-            WildStackerPlugin.log("Starting to load entities...");
+        // Chunks are handled while the tables are loading, but only use the data of the tables that were loaded.
+        // Chunks that were loaded before are queued once, and the data of the other tables is replayed for them later.
+        ChunksListener.loadedData = true;
+
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks())
+                ChunkLoadTask.queue(chunk);
+        }
+
+        // All tables are scanned concurrently, each one by its own thread and database connection.
+        CompletableFuture<Void> entitiesLoad = !plugin.getSettings().storeEntities ? markTableLoaded("entities") :
+                runLoadPhase("entities", "entities", this::loadEntities);
+        CompletableFuture<Void> itemsLoad = !plugin.getSettings().storeItems ? markTableLoaded("items") :
+                runLoadPhase("items", "items", this::loadItems);
+        CompletableFuture<Void> spawnersLoad = lazyLoading ?
+                runLoadPhase("spawners", "spawners index", () -> loadChunksIndex("spawners", storageBackend::loadSpawnersChunks,
+                        LAZY_SPAWNERS_CHUNKS, storageBackend::deleteSpawners)) :
+                runLoadPhase("spawners", "spawners", this::loadSpawners);
+        CompletableFuture<Void> barrelsLoad = lazyLoading ?
+                runLoadPhase("barrels", "barrels index", () -> loadChunksIndex("barrels", storageBackend::loadBarrelsChunks,
+                        LAZY_BARRELS_CHUNKS, storageBackend::deleteBarrels)) :
+                runLoadPhase("barrels", "barrels", this::loadBarrels);
+
+        CompletableFuture.allOf(entitiesLoad, itemsLoad, spawnersLoad, barrelsLoad).whenComplete((result, error) -> Executor.sync(() ->
+                WildStackerPlugin.log("Loading database done! Took " + (System.currentTimeMillis() - startTime) + " ms.")));
+    }
+
+    public boolean isTableLoaded(String table) {
+        return loadedTables.contains(table);
+    }
+
+    /*
+     * Checks if the table was loaded, for handling the given chunk.
+     * If it wasn't, the data of the table is replayed for the chunk once the table is loaded.
+     */
+    public boolean isTableLoaded(String table, Chunk chunk) {
+        if (loadedTables.contains(table))
+            return true;
+
+        chunksToReplay.computeIfAbsent(table, t -> new HashSet<>()).add(new ChunkPosition(chunk));
 
-            SQLHelper.executeQuery("SELECT * FROM entities;", resultSet -> {
-                while (resultSet.next()) {
-                    int stackAmount = resultSet.getInt("stackAmount");
-                    SpawnCause spawnCause = SpawnCause.matchCause(resultSet.getString("spawnCause"));
-                    UUID uuid = UUID.fromString(resultSet.getString("uuid"));
-                    CACHED_ENTITIES_RAW.put(uuid, new Pair<>(stackAmount, spawnCause));
+        return false;
+    }
+
+    private CompletableFuture<Void> runLoadPhase(String table, String name, Runnable loadTask) {
+        CompletableFuture<Void> loadFuture = new CompletableFuture<>();
+
+        new Thread(() -> {
+            long startTime = System.currentTimeMillis();
+            WildStackerPlugin.log("Starting to load " + name + "...");
+
+            try {
+                loadTask.run();
+            } catch (Throwable ex) {
+                WildStackerPlugin.log("&cFailed to load " + name + ":");
+                ex.printStackTrace();
+            } finally {
+                SQLHelper.closeReadConnection();
+                WildStackerPlugin.log("Loading " + name + " done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+                Executor.sync(() -> onTableLoaded(table));
+                loadFuture.complete(null);
+            }
+        }, "WildStacker Database Thread (" + name + ")").start();
+
+        return loadFuture;
+    }
+
+    private CompletableFuture<Void> markTableLoaded(String table) {
+        loadedTables.add(table);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void onTableLoaded(String table) {
+        loadedTables.add(table);
+
+        // Entities and items that were created before their table was loaded get their stored data now.
+        if (table.equals("entities") && !CACHED_ENTITIES_RAW.isEmpty()) {
+            for (StackedEntity stackedEntity : CACHED_ENTITIES.values()) {
+                Pair<Integer, SpawnCause> entityData = CACHED_ENTITIES_RAW.remove(stackedEntity.getUniqueId());
+                if (entityData != null) {
+                    stackedEntity.setStackAmount(entityData.getKey(), true);
+                    stackedEntity.setSpawnCause(entityData.getValue());
                 }
-            }, ex -> {
-            });
+            }
+        } else if (table.equals("items") && !CACHED_ITEMS_RAW.isEmpty()) {
+            for (StackedItem stackedItem : CACHED_ITEMS.values()) {
+                Integer itemData = CACHED_ITEMS_RAW.remove(stackedItem.getUniqueId());
+                if (itemData != null)
+                    stackedItem.setStackAmount(itemData, true);
+            }
+        }
+
+        // Replaying the data of the table for the chunks that were handled while the table was loading.
+        Set<ChunkPosition> replayedChunks = chunksToReplay.remove(table);
+
+        if (replayedChunks == null)
+            return;
 
-            WildStackerPlugin.log("Loading entities done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+        long replayStartTime = System.currentTimeMillis();
+
+        for (ChunkPosition chunkPosition : replayedChunks) {
+            World world = Bukkit.getWorld(chunkPosition.getWorld());
+            if (world != null && world.isChunkLoaded(chunkPosition.getX(), chunkPosition.getZ()))
+                plugin.getSystemManager().replayChunkLoad(table, world.getChunkAt(chunkPosition.getX(), chunkPosition.getZ()));
         }
 
-        startTime = System.currentTimeMillis();
+        WildStackerPlugin.log("Replaying " + table + " for " + replayedChunks.size() + " chunks done! Took " +
+                (System.currentTimeMillis() - replayStartTime) + " ms.");
+    }
 
-        if (plugin.getSettings().storeItems) {
-            WildStackerPlugin.log("Starting to load items...");
+    private void loadEntities() {
+        storageBackend.loadEntities((uuid, stackAmount, spawnCause) ->
+                CACHED_ENTITIES_RAW.put(uuid, new Pair<>(stackAmount, spawnCause)));
+    }
 
-            SQLHelper.executeQuery("SELECT * FROM items;", resultSet -> {
-                while (resultSet.next()) {
-                    int stackAmount = resultSet.getInt("stackAmount");
-                    UUID uuid = UUID.fromString(resultSet.getString("uuid"));
-                    CACHED_ITEMS_RAW.put(uuid, stackAmount);
-                }
-            }, ex -> {
-            });
+    private void loadItems() {
+        storageBackend.loadItems(CACHED_ITEMS_RAW::put);
+    }
+
+    private void loadSpawners() {
+        Set<String> invalidWorlds = new HashSet<>();
+
+        storageBackend.loadSpawners((world, x, y, z, stackAmount, upgradeId) -> {
+            World blockWorld = Bukkit.getWorld(world);
+
+            if (blockWorld == null)
+                invalidWorlds.add(world);
+            else
+                loadSpawner(new Location(blockWorld, x, y, z), stackAmount, upgradeId);
+        });
+
+        handleInvalidWorlds("spawners", invalidWorlds, storageBackend::deleteSpawners);
+    }
+
+    private void loadBarrels() {
+        Set<String> invalidWorlds = new HashSet<>();
+        List<RawBarrel> rawBarrels = new ArrayList<>();
+
+        storageBackend.loadBarrels((world, x, y, z, stackAmount, item) -> {
+            World blockWorld = Bukkit.getWorld(world);
+
+            if (blockWorld == null)
+                invalidWorlds.add(world);
+            else
+                rawBarrels.add(new RawBarrel(new Location(blockWorld, x, y, z), stackAmount, item));
+        });
+
+        // Deserializing the items of barrels is expensive, therefore it's done in parallel.
+        rawBarrels.parallelStream().forEach(this::loadBarrel);
+
+        handleInvalidWorlds("barrels", invalidWorlds, storageBackend::deleteBarrels);
+    }
+
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /*
+     * Loads the spawners and barrels of the chunk from the database, if they weren't loaded yet.
+     * Rows of nearby chunks are fetched as well, so they are ready by the time these chunks are loaded.
+     */
+    public void fetchChunkData(Chunk chunk) {
+        if (!lazyLoading)
+            return;
+
+        int prefetchRadius = plugin.getSettings().databasePrefetchRadius;
 
-            WildStackerPlugin.log("Loading items done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+        for (int x = -prefetchRadius; x <= prefetchRadius; x++) {
+            for (int z = -prefetchRadius; z <= prefetchRadius; z++)
+                fetchChunkData(chunk.getWorld(), chunk.getX() + x, chunk.getZ() + z);
         }
+    }
 
-        startTime = System.currentTimeMillis();
-        WildStackerPlugin.log("Starting to load spawners...");
-
-        SQLHelper.executeQuery("SELECT * FROM spawners;", resultSet -> {
-            while (resultSet.next()) {
-                String location = resultSet.getString("location");
-                String[] locationSections = location.split(",");
-                World blockWorld = Bukkit.getWorld(locationSections[0]);
-
-                String exceptionReason = "Null world.";
-
-                if (blockWorld != null) {
-                    Location blockLocation = new Location(
-                            blockWorld,
-                            Integer.valueOf(locationSections[1]),
-                            Integer.valueOf(locationSections[2]),
-                            Integer.valueOf(locationSections[3])
-                    );
-
-
-                    try {
-                        int stackAmount = resultSet.getInt("stackAmount");
-                        int upgradeId = resultSet.getInt("upgrade");
-                        CACHED_SPAWNERS_RAW.computeIfAbsent(new ChunkPosition(blockLocation), s -> Maps.newConcurrentMap())
-                                .put(blockLocation, new WUnloadedStackedSpawner(blockLocation, stackAmount, upgradeId));
-                        continue;
-                    } catch (Exception ex) {
-                        exceptionReason = "Exception was thrown.";
-                    }
-                }
+    private void fetchChunkData(World world, int chunkX, int chunkZ) {
+        ChunkPosition chunkPosition = new ChunkPosition(world.getName(), chunkX, chunkZ);
 
-                WildStackerPlugin.log("Couldn't load spawner: " + location);
-                WildStackerPlugin.log(exceptionReason);
+        boolean fetchSpawners = LAZY_SPAWNERS_CHUNKS.remove(chunkPosition);
+        boolean fetchBarrels = LAZY_BARRELS_CHUNKS.remove(chunkPosition);
 
-                if (exceptionReason.contains("Null") && plugin.getSettings().deleteInvalidWorlds) {
-                    SQLHelper.executeUpdate("DELETE FROM spawners WHERE location = '" + location + "';");
-                    WildStackerPlugin.log("Deleted spawner (" + location + ") from database.");
-                }
+        if (!fetchSpawners && !fetchBarrels)
+            return;
+
+        Executor.data(() -> {
+            if (fetchSpawners) {
+                storageBackend.loadSpawners(world.getName(), chunkX, chunkZ, (worldName, x, y, z, stackAmount, upgradeId) ->
+                        loadSpawner(new Location(world, x, y, z), stackAmount, upgradeId));
             }
+
+            if (fetchBarrels) {
+                storageBackend.loadBarrels(world.getName(), chunkX, chunkZ, (worldName, x, y, z, stackAmount, item) ->
+                        loadBarrel(new RawBarrel(new Location(world, x, y, z), stackAmount, item)));
+            }
+
+            // The chunk may have been loaded while fetching its data.
+            Executor.sync(() -> {
+                if (!world.isChunkLoaded(chunkX, chunkZ))
+                    return;
+
+                Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+
+                if (fetchSpawners)
+                    plugin.getSystemManager().loadSpawners(chunk);
+                if (fetchBarrels)
+                    plugin.getSystemManager().loadBarrels(chunk);
+            });
         });
+    }
 
-        WildStackerPlugin.log("Loading spawners done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
-        startTime = System.currentTimeMillis();
-        WildStackerPlugin.log("Starting to load barrels...");
-
-        SQLHelper.executeQuery("SELECT * FROM barrels;", resultSet -> {
-            while (resultSet.next()) {
-                String location = resultSet.getString("location");
-                String[] locationSections = location.split(",");
-                World blockWorld = Bukkit.getWorld(locationSections[0]);
-
-                String exceptionReason = "Null world.";
-
-                if (blockWorld != null) {
-                    Location blockLocation = new Location(
-                            blockWorld,
-                            Integer.valueOf(locationSections[1]),
-                            Integer.valueOf(locationSections[2]),
-                            Integer.valueOf(locationSections[3])
-                    );
-
-                    try {
-                        int stackAmount = resultSet.getInt("stackAmount");
-                        ItemStack barrelItem = resultSet.getString("item").isEmpty() ? null :
-                                plugin.getNMSAdapter().deserialize(resultSet.getString("item"));
-                        CACHED_BARRELS_RAW.computeIfAbsent(new ChunkPosition(blockLocation), s -> Maps.newConcurrentMap())
-                                .put(blockLocation, new WUnloadedStackedBarrel(blockLocation, stackAmount, barrelItem));
-                        continue;
-                    } catch (Exception ex) {
-                        exceptionReason = "Exception was thrown.";
-                    }
-                }
+    private void loadSpawner(Location blockLocation, int stackAmount, int upgradeId) {
+        CACHED_SPAWNERS_RAW.computeIfAbsent(new ChunkPosition(blockLocation), s -> Maps.newConcurrentMap())
+                .put(blockLocation, new WUnloadedStackedSpawner(blockLocation, stackAmount, upgradeId));
+    }
 
-                WildStackerPlugin.log("Couldn't load barrel: " + location);
-                WildStackerPlugin.log(exceptionReason);
+    private void loadBarrel(RawBarrel rawBarrel) {
+        try {
+            ItemStack barrelItem = rawBarrel.item.isEmpty() ? null : plugin.getNMSAdapter().deserialize(rawBarrel.item);
+            CACHED_BARRELS_RAW.computeIfAbsent(new ChunkPosition(rawBarrel.location), s -> Maps.newConcurrentMap())
+                    .put(rawBarrel.location, new WUnloadedStackedBarrel(rawBarrel.location, rawBarrel.stackAmount, barrelItem));
+        } catch (Exception ex) {
+            WildStackerPlugin.log("Couldn't load barrel: " + rawBarrel.location);
+            ex.printStackTrace();
+        }
+    }
 
-                if (exceptionReason.contains("Null") && plugin.getSettings().deleteInvalidWorlds) {
-                    SQLHelper.executeUpdate("DELETE FROM barrels WHERE location = '" + location + "';");
-                    WildStackerPlugin.log("Deleted barrel (" + location + ") from database.");
-                }
-            }
+    private void loadChunksIndex(String objectsName, Consumer<StorageBackend.ChunkConsumer> chunksLoader,
+                                 Set<ChunkPosition> chunksIndex, Consumer<String> worldDeleter) {
+        Set<String> invalidWorlds = new HashSet<>();
+
+        chunksLoader.accept((world, chunkX, chunkZ) -> {
+            if (Bukkit.getWorld(world) == null)
+                invalidWorlds.add(world);
+            else
+                chunksIndex.add(new ChunkPosition(world, chunkX, chunkZ));
         });
 
-        WildStackerPlugin.log("Loading barrels done! Took " + (System.currentTimeMillis() - startTime) + " ms.");
+        handleInvalidWorlds(objectsName, invalidWorlds, worldDeleter);
+    }
 
-        ChunksListener.loadedData = true;
+    private void handleInvalidWorlds(String objectsName, Set<String> invalidWorlds, Consumer<String> worldDeleter) {
+        for (String worldName : invalidWorlds) {
+            WildStackerPlugin.log("Couldn't load " + objectsName + " of world " + worldName + ": Null world.");
 
-        for (World world : Bukkit.getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks())
-                plugin.getSystemManager().handleChunkLoad(chunk);
+            if (plugin.getSettings().deleteInvalidWorlds) {
+                worldDeleter.accept(worldName);
+                WildStackerPlugin.log("Deleted " + objectsName + " of world " + worldName + " from database.");
+            }
         }
     }
 
+    private static StorageBackend createStorageBackend(WildStackerPlugin plugin) {
+        switch (plugin.getSettings().databaseType) {
+            case "LOG":
+                return new LogStorageBackend(plugin);
+            case "SQLITE":
+                return new SQLiteStorageBackend(plugin);
+            default:
+                WildStackerPlugin.log("&cUnknown database type " + plugin.getSettings().databaseType + ", using SQLITE instead.");
+                return new SQLiteStorageBackend(plugin);
+        }
+    }
+
+    private static final class RawBarrel {
+
+        private final Location location;
+        private final int stackAmount;
+        private final String item;
+
+        RawBarrel(Location location, int stackAmount, String item) {
+            this.location = location;
+            this.stackAmount = stackAmount;
+            this.item = item;
+        }
+
+    }
+
 }
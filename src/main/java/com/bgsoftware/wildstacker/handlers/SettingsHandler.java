@@ -66,12 +66,13 @@ public final class SettingsHandler {
             "spawner-upgrades.ladders"};
 
     //Global settings
-    public final String giveItemName, killTaskTimeCommand;
+    public final String giveItemName, killTaskTimeCommand, databaseType;
     public final ItemStack inspectTool, simulateTool;
-    public final boolean deleteInvalidWorlds, killTaskStackedEntities, killTaskUnstackedEntities,
+    public final boolean deleteInvalidWorlds, databaseLazyLoading, killTaskStackedEntities, killTaskUnstackedEntities,
             killTaskStackedItems, killTaskUnstackedItems, killTaskSyncClearLagg;
     public final Map<String, String> customNames;
-    public final long killTaskInterval;
+    public final int databasePrefetchRadius, stackablesGridCellShift;
+    public final long killTaskInterval, chunksLoadBudget;
     public final Fast2EnumsArray<EntityType, SpawnCause> killTaskEntitiesWhitelist, killTaskEntitiesBlacklist;
     public final FastEnumArray<Material> killTaskItemsWhitelist, killTaskItemsBlacklist;
     public final List<String> killTaskEntitiesWorlds, killTaskItemsWorlds;
@@ -86,15 +87,15 @@ public final class SettingsHandler {
     public final NameBuilder<StackedItem> itemsNameBuilder;
     public final FastEnumMap<Material, Integer> itemsMergeRadius, itemsLimits;
     public final List<ParticleWrapper> itemsParticles;
-    public final long itemsStackInterval;
+    public final long itemsStackInterval, itemsSweepInterval;
 
     //Entities settings
     public final boolean entitiesStackingEnabled, entitiesParticlesEnabled, linkedEntitiesEnabled, nerfedEntitiesTeleport,
             stackDownEnabled, keepFireEnabled, mythicMobsCustomNameEnabled, stackAfterBreed, smartBreeding,
             entitiesHideNames, entitiesNamesToggleEnabled, entitiesFastKill, eggLayMultiply, scuteMultiply,
             entitiesClearEquipment, spawnCorpses, entitiesOneShotEnabled, storeEntities, superiorSkyblockHook,
-            multiplyDrops, multiplyExp, spreadDamage, entitiesFillVehicles;
-    public final long entitiesStackInterval;
+            multiplyDrops, multiplyExp, averageExp, spreadDamage, entitiesFillVehicles;
+    public final long entitiesStackInterval, entitiesStackBudget;
     public final String entitiesCustomName, entitiesNamesToggleCommand;
     public final NameBuilder<StackedEntity> entitiesNameBuilder;
     public final Sound entitiesExpPickupSound;
@@ -177,7 +178,11 @@ public final class SettingsHandler {
         simulateTool = new ItemBuilder(Material.valueOf(cfg.getString("inspect-tool.type")), cfg.getInt("inspect-tool.data", 0))
                 .withName(cfg.getString("simulate-tool.name"))
                 .withLore(cfg.getStringList("simulate-tool.lore")).build();
+        databaseType = cfg.getString("database.type", "SQLITE").toUpperCase();
         deleteInvalidWorlds = cfg.getBoolean("database.delete-invalid-worlds", false);
+        databaseLazyLoading = cfg.getBoolean("database.lazy-loading.enabled", false);
+        databasePrefetchRadius = Math.max(0, cfg.getInt("database.lazy-loading.prefetch-radius", 1));
+        chunksLoadBudget = (long) (Math.max(0, cfg.getDouble("chunks-load-budget", 2)) * 1000000);
         killTaskInterval = cfg.getLong("kill-task.interval", 300);
         killTaskStackedEntities = cfg.getBoolean("kill-task.stacked-entities", true);
         killTaskUnstackedEntities = cfg.getBoolean("kill-task.unstacked-entities", true);
@@ -220,14 +225,18 @@ public final class SettingsHandler {
         itemsSoundEnabled = cfg.getBoolean("items.pickup-sound", true);
         itemsMaxPickupDelay = cfg.getBoolean("items.max-pickup-delay", false);
         itemsStackInterval = cfg.getLong("items.stack-interval", 0L);
+        itemsSweepInterval = cfg.getLong("items.sweep-interval", 600L);
         storeItems = cfg.getBoolean("items.store-items", true);
 
         entitiesStackingEnabled = cfg.getBoolean("entities.enabled", true);
         entitiesMergeRadius = Fast2EnumsMap.fromSectionToInt(cfg.getConfigurationSection("entities.merge-radius"),
                 EntityType.class, SpawnCause.class);
+        stackablesGridCellShift = getGridCellShift(cfg.getConfigurationSection("entities.merge-radius"),
+                cfg.getConfigurationSection("items.merge-radius"));
         entitiesParticlesEnabled = cfg.getBoolean("entities.particles", true);
         entitiesParticles = getParticles(plugin, "entities");
         entitiesStackInterval = cfg.getLong("entities.stack-interval", 0);
+        entitiesStackBudget = (long) (Math.max(0, cfg.getDouble("entities.stack-budget", 2)) * 1000000);
         entitiesDisabledWorlds = cfg.getStringList("entities.disabled-worlds");
         entitiesLimits = Fast2EnumsMap.fromSectionToInt(cfg.getConfigurationSection("entities.limits"),
                 EntityType.class, SpawnCause.class);
@@ -296,6 +305,7 @@ public final class SettingsHandler {
         superiorSkyblockHook = cfg.getBoolean("entities.superiorskyblock-hook", false);
         multiplyDrops = cfg.getBoolean("entities.multiply-drops", true);
         multiplyExp = cfg.getBoolean("entities.multiply-exp", true);
+        averageExp = cfg.getBoolean("entities.average-exp", false);
         spreadDamage = cfg.getBoolean("entities.spread-damage", false);
         entitiesFilteredTransforms = cfg.getStringList("entities.filtered-transforms");
         entitiesFillVehicles = cfg.getBoolean("entities.entities-fill-vehicles");
@@ -521,6 +531,22 @@ public final class SettingsHandler {
         return bool ? "enabled" : "disabled";
     }
 
+    // Cells of the stackables grid are sized to the largest merge radius, rounded up to a power of two.
+    private static int getGridCellShift(ConfigurationSection... mergeRadiusSections) {
+        int maxMergeRadius = 1;
+
+        for (ConfigurationSection mergeRadiusSection : mergeRadiusSections) {
+            if (mergeRadiusSection != null) {
+                for (String key : mergeRadiusSection.getKeys(false))
+                    maxMergeRadius = Math.max(maxMergeRadius, mergeRadiusSection.getInt(key));
+            }
+        }
+
+        int cellShift = 32 - Integer.numberOfLeadingZeros(maxMergeRadius - 1);
+
+        return Math.max(3, Math.min(6, cellShift));
+    }
+
     private void loadCustomNames(WildStackerPlugin plugin) {
         File file = new File(plugin.getDataFolder(), "custom-names.yml");
 
@@ -15,7 +15,8 @@ import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedSpawner;
 import com.bgsoftware.wildstacker.api.spawning.SpawnCondition;
-import com.bgsoftware.wildstacker.database.Query;
+import com.bgsoftware.wildstacker.database.BarrelSnapshot;
+import com.bgsoftware.wildstacker.database.SpawnerSnapshot;
 import com.bgsoftware.wildstacker.hooks.DataSerializer_Default;
 import com.bgsoftware.wildstacker.hooks.IDataSerializer;
 import com.bgsoftware.wildstacker.objects.WStackedBarrel;
@@ -25,6 +26,8 @@ import com.bgsoftware.wildstacker.objects.WStackedSnapshot;
 import com.bgsoftware.wildstacker.objects.WStackedSpawner;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedBarrel;
 import com.bgsoftware.wildstacker.objects.WUnloadedStackedSpawner;
+import com.bgsoftware.wildstacker.tasks.CacheClearTask;
+import com.bgsoftware.wildstacker.tasks.ChunkLoadTask;
 import com.bgsoftware.wildstacker.tasks.ItemsMerger;
 import com.bgsoftware.wildstacker.tasks.KillTask;
 import com.bgsoftware.wildstacker.tasks.StackTask;
@@ -33,13 +36,13 @@ import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
 import com.bgsoftware.wildstacker.utils.data.DataSerializer;
 import com.bgsoftware.wildstacker.utils.data.structures.FastEnumMap;
+import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import com.bgsoftware.wildstacker.utils.legacy.Materials;
 import com.bgsoftware.wildstacker.utils.pair.Pair;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
-import com.google.common.collect.Maps;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -94,10 +97,11 @@ public final class SystemHandler implements SystemManager {
             KillTask.start();
             StackTask.start();
             ItemsMerger.start();
+            EntitiesGetter.start();
+            CacheClearTask.start();
+            ChunkLoadTask.start();
         }, 1L);
 
-        //Start the auto-clear
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::performCacheClear, 100L, 100L);
         //Start the auto-save
         Bukkit.getScheduler().runTaskTimer(plugin, this::performCacheSave, 300L, 300L);
     }
@@ -109,10 +113,10 @@ public final class SystemHandler implements SystemManager {
     @Override
     public void removeStackObject(StackedObject stackedObject) {
         if (stackedObject instanceof StackedEntity) {
-            dataHandler.CACHED_ENTITIES.remove(((StackedEntity) stackedObject).getUniqueId());
+            dataHandler.CACHED_ENTITIES.remove(((WStackedEntity) stackedObject).getId());
             ((StackedEntity) stackedObject).clearFlags();
         } else if (stackedObject instanceof StackedItem)
-            dataHandler.CACHED_ITEMS.remove(((StackedItem) stackedObject).getUniqueId());
+            dataHandler.CACHED_ITEMS.remove(((WStackedItem) stackedObject).getId());
         else if (stackedObject instanceof StackedSpawner)
             dataHandler.removeStackedSpawner((StackedSpawner) stackedObject);
         else if (stackedObject instanceof StackedBarrel)
@@ -123,7 +127,7 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedEntity getStackedEntity(LivingEntity livingEntity) {
-        StackedEntity stackedEntity = dataHandler.CACHED_ENTITIES.get(livingEntity.getUniqueId());
+        StackedEntity stackedEntity = dataHandler.CACHED_ENTITIES.get(livingEntity.getEntityId());
 
         if (stackedEntity != null && stackedEntity.getLivingEntity() != null)
             return stackedEntity;
@@ -174,7 +178,7 @@ public final class SystemHandler implements SystemManager {
 
         //A new entity was created. Let's see if we need to add him
         if (shouldBeCached)
-            dataHandler.CACHED_ENTITIES.put(stackedEntity.getUniqueId(), stackedEntity);
+            dataHandler.CACHED_ENTITIES.put(livingEntity.getEntityId(), stackedEntity);
 
         boolean deadFlag = shouldBeCached ? dataHandler.CACHED_DEAD_ENTITIES.remove(livingEntity.getUniqueId()) :
                 dataHandler.CACHED_DEAD_ENTITIES.contains(livingEntity.getUniqueId());
@@ -187,7 +191,7 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedItem getStackedItem(Item item) {
-        StackedItem stackedItem = dataHandler.CACHED_ITEMS.get(item.getUniqueId());
+        StackedItem stackedItem = dataHandler.CACHED_ITEMS.get(item.getEntityId());
 
         if (stackedItem != null && stackedItem.getItem() != null)
             return stackedItem;
@@ -198,12 +202,12 @@ public final class SystemHandler implements SystemManager {
         //Checks if the item still exists after a few ticks
         Executor.sync(() -> {
             if (item.isDead())
-                dataHandler.CACHED_ITEMS.remove(item.getUniqueId());
+                dataHandler.CACHED_ITEMS.remove(item.getEntityId());
         }, 10L);
 
         //A new item was created. Let's see if we need to add him
         if (stackedItem.isCached())
-            dataHandler.CACHED_ITEMS.put(stackedItem.getUniqueId(), stackedItem);
+            dataHandler.CACHED_ITEMS.put(item.getEntityId(), stackedItem);
 
         Integer entityData = dataHandler.CACHED_ITEMS_RAW.remove(item.getUniqueId());
         if (entityData != null) {
@@ -243,11 +247,17 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedSpawner getStackedSpawner(Location location) {
-        StackedSpawner stackedSpawner = dataHandler.CACHED_SPAWNERS.get(location);
+        StackedSpawner stackedSpawner = dataHandler.getStackedSpawner(location);
 
         if (stackedSpawner != null)
             return stackedSpawner;
 
+        //The chunk of the spawner may still wait to be handled
+        ChunkLoadTask.handleChunkNow(location);
+
+        if ((stackedSpawner = dataHandler.getStackedSpawner(location)) != null)
+            return stackedSpawner;
+
         //Spawner wasn't found, creating a new object
         stackedSpawner = new WStackedSpawner((CreatureSpawner) location.getBlock().getState());
 
@@ -265,11 +275,17 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public StackedBarrel getStackedBarrel(Location location) {
-        StackedBarrel stackedBarrel = dataHandler.CACHED_BARRELS.get(location);
+        StackedBarrel stackedBarrel = dataHandler.getStackedBarrel(location);
 
         if (stackedBarrel != null)
             return stackedBarrel;
 
+        //The chunk of the barrel may still wait to be handled
+        ChunkLoadTask.handleChunkNow(location);
+
+        if ((stackedBarrel = dataHandler.getStackedBarrel(location)) != null)
+            return stackedBarrel;
+
         //Barrel wasn't found, creating a new object
         stackedBarrel = new WStackedBarrel(location.getBlock(), ItemUtils.getFromBlock(location.getBlock()));
 
@@ -282,17 +298,17 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedEntity> getStackedEntities() {
-        return new ArrayList<>(dataHandler.CACHED_ENTITIES.values());
+        return dataHandler.CACHED_ENTITIES.values();
     }
 
     @Override
     public List<StackedItem> getStackedItems() {
-        return new ArrayList<>(dataHandler.CACHED_ITEMS.values());
+        return dataHandler.CACHED_ITEMS.values();
     }
 
     @Override
     public List<StackedSpawner> getStackedSpawners() {
-        return new ArrayList<>(dataHandler.CACHED_SPAWNERS.values());
+        return dataHandler.CACHED_SPAWNERS.values();
     }
 
     @Override
@@ -302,7 +318,8 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedSpawner> getStackedSpawners(World world, int chunkX, int chunkZ) {
-        Set<StackedSpawner> chunkSpawners = dataHandler.CACHED_SPAWNERS_BY_CHUNKS.get(new ChunkPosition(world.getName(), chunkX, chunkZ));
+        ChunkLoadTask.handleChunksNow(world.getName(), chunkX, chunkZ, chunkX, chunkZ);
+        Set<StackedSpawner> chunkSpawners = dataHandler.getStackedSpawners(world.getName(), chunkX, chunkZ);
         return chunkSpawners == null ? new ArrayList<>() : new ArrayList<>(chunkSpawners);
     }
 
@@ -318,7 +335,7 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedBarrel> getStackedBarrels() {
-        return new ArrayList<>(dataHandler.CACHED_BARRELS.values());
+        return dataHandler.CACHED_BARRELS.values();
     }
 
     @Override
@@ -328,7 +345,8 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public List<StackedBarrel> getStackedBarrels(World world, int chunkX, int chunkZ) {
-        Set<StackedBarrel> chunkBarrels = dataHandler.CACHED_BARRELS_BY_CHUNKS.get(new ChunkPosition(world.getName(), chunkX, chunkZ));
+        ChunkLoadTask.handleChunksNow(world.getName(), chunkX, chunkZ, chunkX, chunkZ);
+        Set<StackedBarrel> chunkBarrels = dataHandler.getStackedBarrels(world.getName(), chunkX, chunkZ);
         return chunkBarrels == null ? new ArrayList<>() : new ArrayList<>(chunkBarrels);
     }
 
@@ -349,7 +367,15 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public boolean isStackedSpawner(Location location) {
-        return location != null && dataHandler.CACHED_SPAWNERS.containsKey(location);
+        if (location == null)
+            return false;
+
+        if (dataHandler.getStackedSpawner(location) != null)
+            return true;
+
+        ChunkLoadTask.handleChunkNow(location);
+
+        return dataHandler.getStackedSpawner(location) != null;
     }
 
     @Override
@@ -359,43 +385,59 @@ public final class SystemHandler implements SystemManager {
 
     @Override
     public boolean isStackedBarrel(Location location) {
-        return dataHandler.CACHED_BARRELS.containsKey(location);
+        if (location == null)
+            return false;
+
+        if (dataHandler.getStackedBarrel(location) != null)
+            return true;
+
+        ChunkLoadTask.handleChunkNow(location);
+
+        return dataHandler.getStackedBarrel(location) != null;
     }
 
     @Override
     public void performCacheClear() {
-        List<StackedObject> stackedObjects = dataHandler.getStackedObjects();
-
-        for (StackedObject stackedObject : stackedObjects) {
-            if (stackedObject instanceof StackedItem) {
-                StackedItem stackedItem = (StackedItem) stackedObject;
-                if (stackedItem.getItem() == null || (GeneralUtils.isChunkLoaded(stackedItem.getItem().getLocation()) && stackedItem.getItem().isDead()))
-                    removeStackObject(stackedObject);
-            } else if (stackedObject instanceof StackedEntity) {
-                StackedEntity stackedEntity = (StackedEntity) stackedObject;
-                if (stackedEntity.getLivingEntity() == null || (
-                        GeneralUtils.isChunkLoaded(stackedEntity.getLivingEntity().getLocation()) &&
-                                (stackedEntity.getLivingEntity().isDead() && !stackedEntity.hasFlag(EntityFlag.DEAD_ENTITY))) ||
-                        !EntityUtils.isStackable(stackedEntity.getLivingEntity())) {
-                    removeStackObject(stackedObject);
-                } else {
-                    stackedEntity.updateNerfed();
-                }
-            } else if (stackedObject instanceof StackedSpawner) {
-                StackedSpawner stackedSpawner = (StackedSpawner) stackedObject;
-                if (GeneralUtils.isChunkLoaded(stackedSpawner.getLocation()) && !isStackedSpawner(stackedSpawner.getSpawner().getBlock())) {
-                    removeStackObject(stackedObject);
-                }
-            } else if (stackedObject instanceof StackedBarrel) {
-                StackedBarrel stackedBarrel = (StackedBarrel) stackedObject;
-                if (GeneralUtils.isChunkLoaded(stackedBarrel.getLocation()) && !isStackedBarrel(stackedBarrel.getBlock())) {
-                    removeStackObject(stackedObject);
-                    stackedBarrel.removeDisplayBlock();
-                }
+        for (StackedObject stackedObject : dataHandler.getStackedObjects())
+            validateStackObject(stackedObject);
+    }
+
+    /*
+     * Removes the object from the cache if it's no longer valid.
+     * Objects are usually removed by events - this is only a safety net for objects that were removed without one.
+     */
+    public void validateStackObject(StackedObject stackedObject) {
+        if (stackedObject instanceof StackedItem) {
+            StackedItem stackedItem = (StackedItem) stackedObject;
+            if (stackedItem.getItem() == null || (GeneralUtils.isChunkLoaded(stackedItem.getItem().getLocation()) && stackedItem.getItem().isDead()))
+                removeStackObject(stackedObject);
+        } else if (stackedObject instanceof StackedEntity) {
+            StackedEntity stackedEntity = (StackedEntity) stackedObject;
+            if (stackedEntity.getLivingEntity() == null || (
+                    GeneralUtils.isChunkLoaded(stackedEntity.getLivingEntity().getLocation()) &&
+                            (stackedEntity.getLivingEntity().isDead() && !stackedEntity.hasFlag(EntityFlag.DEAD_ENTITY))) ||
+                    !EntityUtils.isStackable(stackedEntity.getLivingEntity())) {
+                removeStackObject(stackedObject);
+            }
+        } else if (stackedObject instanceof StackedSpawner) {
+            StackedSpawner stackedSpawner = (StackedSpawner) stackedObject;
+            if (GeneralUtils.isChunkLoaded(stackedSpawner.getLocation()) && !isStackedSpawner(stackedSpawner.getSpawner().getBlock())) {
+                removeStackObject(stackedObject);
+            }
+        } else if (stackedObject instanceof StackedBarrel) {
+            StackedBarrel stackedBarrel = (StackedBarrel) stackedObject;
+            if (GeneralUtils.isChunkLoaded(stackedBarrel.getLocation()) && !isStackedBarrel(stackedBarrel.getBlock())) {
+                removeStackObject(stackedObject);
+                stackedBarrel.removeDisplayBlock();
             }
         }
     }
 
+    public void validateStackObjectLater(StackedObject stackedObject) {
+        if (stackedObject != null)
+            Executor.sync(() -> validateStackObject(stackedObject), 1L);
+    }
+
     @Override
     public void performCacheSave() {
         if (!Bukkit.isPrimaryThread()) {
@@ -406,34 +448,60 @@ public final class SystemHandler implements SystemManager {
         Set<StackedObject> savedObjects = new HashSet<>(dataHandler.OBJECTS_TO_SAVE);
         dataHandler.OBJECTS_TO_SAVE.clear();
 
+        // Only lightweight snapshots are taken here. Serializing and writing them is done by the database thread.
+        List<SpawnerSnapshot> spawnerSnapshots = new ArrayList<>();
+        List<BarrelSnapshot> barrelSnapshots = new ArrayList<>();
+        List<StackedObject> flushedObjects = new ArrayList<>();
+        // Entities and items are saved into their own data, which can only be modified from the main thread.
+        List<StackedEntity> savedEntities = new ArrayList<>();
+        List<StackedItem> savedItems = new ArrayList<>();
+
         savedObjects.forEach(stackedObject -> {
             if (stackedObject instanceof StackedEntity) {
-                dataSerializer.saveEntity((StackedEntity) stackedObject);
+                savedEntities.add((StackedEntity) stackedObject);
             } else if (stackedObject instanceof StackedItem) {
-                dataSerializer.saveItem((StackedItem) stackedObject);
+                savedItems.add((StackedItem) stackedObject);
             } else if (stackedObject instanceof StackedSpawner) {
-                Query.SPAWNER_INSERT.getStatementHolder()
-                        .setLocation(stackedObject.getLocation())
-                        .setInt(stackedObject.getStackAmount())
-                        .setInt(((WStackedSpawner) stackedObject).getUpgradeId())
-                        .execute(true);
+                spawnerSnapshots.add(new SpawnerSnapshot((StackedSpawner) stackedObject));
+                flushedObjects.add(stackedObject);
             } else if (stackedObject instanceof StackedBarrel) {
-                Query.BARREL_INSERT.getStatementHolder()
-                        .setLocation(stackedObject.getLocation())
-                        .setInt(stackedObject.getStackAmount())
-                        .setItemStack(((StackedBarrel) stackedObject).getBarrelItem(1))
-                        .execute(true);
+                barrelSnapshots.add(new BarrelSnapshot((StackedBarrel) stackedObject));
+                flushedObjects.add(stackedObject);
             }
         });
+
+        if (!savedEntities.isEmpty())
+            dataSerializer.saveEntities(savedEntities);
+
+        if (!savedItems.isEmpty())
+            dataSerializer.saveItems(savedItems);
+
+        if (!spawnerSnapshots.isEmpty() || !barrelSnapshots.isEmpty()) {
+            Executor.data(() -> {
+                // The flush is written as a single transaction, so a failure rolls back all of its objects.
+                if (!dataHandler.saveObjects(spawnerSnapshots, barrelSnapshots)) {
+                    WildStackerPlugin.log("&cFailed to save " + flushedObjects.size() + " spawners and barrels, " +
+                            "they will be saved again in the next flush.");
+                    Executor.sync(() -> markFailedObjectsToBeSaved(flushedObjects));
+                }
+            });
+        }
+    }
+
+    private void markFailedObjectsToBeSaved(List<StackedObject> failedObjects) {
+        for (StackedObject stackedObject : failedObjects) {
+            // Objects that were removed in the meantime were already deleted from the database.
+            if (stackedObject instanceof StackedSpawner ?
+                    dataHandler.getStackedSpawner(stackedObject.getLocation()) == stackedObject :
+                    dataHandler.getStackedBarrel(stackedObject.getLocation()) == stackedObject)
+                markToBeSaved(stackedObject);
+        }
     }
 
     @Override
     public void updateLinkedEntity(LivingEntity livingEntity, LivingEntity newLivingEntity) {
-        for (StackedSpawner stackedSpawner : getStackedSpawners()) {
-            LivingEntity linkedEntity = ((WStackedSpawner) stackedSpawner).getRawLinkedEntity();
-            if (linkedEntity != null && linkedEntity.equals(livingEntity))
-                stackedSpawner.setLinkedEntity(newLivingEntity);
-        }
+        for (StackedSpawner stackedSpawner : dataHandler.removeLinkedSpawners(livingEntity))
+            stackedSpawner.setLinkedEntity(newLivingEntity);
     }
 
     @Override
@@ -697,6 +765,8 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void loadSpawners(Chunk chunk) {
+        dataHandler.fetchChunkData(chunk);
+
         ChunkPosition chunkPosition = new ChunkPosition(chunk);
         Map<Location, UnloadedStackedSpawner> spawnersToLoad = dataHandler.CACHED_SPAWNERS_RAW.remove(chunkPosition);
 
@@ -730,6 +800,8 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void loadBarrels(Chunk chunk) {
+        dataHandler.fetchChunkData(chunk);
+
         ChunkPosition chunkPosition = new ChunkPosition(chunk);
         Map<Location, UnloadedStackedBarrel> barrelsToLoad = dataHandler.CACHED_BARRELS_RAW.remove(chunkPosition);
 
@@ -758,13 +830,39 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void handleChunkLoad(Chunk chunk) {
-        loadSpawners(chunk);
+        // Data of tables that are still loading is replayed for the chunk after the table was loaded.
+        if (dataHandler.isTableLoaded("spawners", chunk))
+            loadSpawners(chunk);
 
         boolean atLeast18 = ServerVersion.isAtLeast(ServerVersion.v1_8);
+        boolean barrelsLoaded = atLeast18 && dataHandler.isTableLoaded("barrels", chunk);
 
-        if (atLeast18)
+        if (barrelsLoaded)
             loadBarrels(chunk);
 
+        boolean entitiesLoaded = dataHandler.isTableLoaded("entities", chunk);
+
+        EntitiesGetter.handleChunkLoad(chunk);
+
+        handleChunkEntities(chunk, barrelsLoaded, entitiesLoaded);
+    }
+
+    public void replayChunkLoad(String table, Chunk chunk) {
+        switch (table) {
+            case "spawners":
+                loadSpawners(chunk);
+                break;
+            case "barrels":
+                loadBarrels(chunk);
+                handleChunkEntities(chunk, true, false);
+                break;
+            case "entities":
+                handleChunkEntities(chunk, false, true);
+                break;
+        }
+    }
+
+    private void handleChunkEntities(Chunk chunk, boolean handleBarrels, boolean handleEntities) {
         for (Entity entity : chunk.getEntities()) {
             String customName = plugin.getNMSAdapter().getCustomName(entity);
 
@@ -773,7 +871,7 @@ public final class SystemHandler implements SystemManager {
                 plugin.getNMSAdapter().setCustomName(entity, customName.substring(0, 256));
 
             // Remove display blocks of invalid barrels
-            if (atLeast18 && entity instanceof ArmorStand && customName != null &&
+            if (handleBarrels && entity instanceof ArmorStand && customName != null &&
                     customName.equals("BlockDisplay") && !isStackedBarrel(entity.getLocation().getBlock())) {
                 Block block = entity.getLocation().getBlock();
                 if (block.getType() == Material.CAULDRON)
@@ -781,7 +879,7 @@ public final class SystemHandler implements SystemManager {
                 entity.remove();
             }
 
-            if (EntityUtils.isStackable(entity)) {
+            if (handleEntities && EntityUtils.isStackable(entity)) {
                 StackedEntity stackedEntity = WStackedEntity.of(entity);
                 stackedEntity.updateNerfed();
                 stackedEntity.updateName();
@@ -790,36 +888,36 @@ public final class SystemHandler implements SystemManager {
     }
 
     public void handleChunkUnload(Chunk chunk) {
-        Entity[] entities = chunk.getEntities();
+        ChunkLoadTask.remove(chunk);
+        EntitiesGetter.handleChunkUnload(chunk);
+
+        List<StackedEntity> unloadedEntities = new ArrayList<>();
+        List<StackedItem> unloadedItems = new ArrayList<>();
 
-        for (Entity entity : entities) {
+        for (Entity entity : chunk.getEntities()) {
             if (EntityUtils.isStackable(entity)) {
-                StackedEntity stackedEntity = dataHandler.CACHED_ENTITIES.remove(entity.getUniqueId());
-                if (stackedEntity != null) {
-                    dataSerializer.saveEntity(stackedEntity);
-                    stackedEntity.clearFlags();
-                }
+                StackedEntity stackedEntity = dataHandler.CACHED_ENTITIES.remove(entity.getEntityId());
+                if (stackedEntity != null)
+                    unloadedEntities.add(stackedEntity);
             } else if (entity instanceof Item) {
-                StackedItem stackedItem = dataHandler.CACHED_ITEMS.remove(entity.getUniqueId());
+                StackedItem stackedItem = dataHandler.CACHED_ITEMS.remove(entity.getEntityId());
                 if (stackedItem != null)
-                    dataSerializer.saveItem(stackedItem);
+                    unloadedItems.add(stackedItem);
             }
         }
 
-        for (StackedSpawner stackedSpawner : getStackedSpawners(chunk)) {
-            dataHandler.removeStackedSpawner(stackedSpawner);
-            if (stackedSpawner.getStackAmount() > 1 || ((WStackedSpawner) stackedSpawner).getUpgradeId() != 0) {
-                dataHandler.CACHED_SPAWNERS_RAW.computeIfAbsent(new ChunkPosition(stackedSpawner.getLocation()), s -> Maps.newConcurrentMap())
-                        .put(stackedSpawner.getLocation(), new WUnloadedStackedSpawner(stackedSpawner));
-            }
+        // The data of all the entities in the chunk is saved in one pass.
+        if (!unloadedEntities.isEmpty()) {
+            dataSerializer.saveEntities(unloadedEntities);
+            unloadedEntities.forEach(StackedEntity::clearFlags);
         }
 
-        for (StackedBarrel stackedBarrel : getStackedBarrels(chunk)) {
-            dataHandler.removeStackedBarrel(stackedBarrel);
-            dataHandler.CACHED_BARRELS_RAW.computeIfAbsent(new ChunkPosition(stackedBarrel.getLocation()), s -> Maps.newConcurrentMap())
-                    .put(stackedBarrel.getLocation(), new WUnloadedStackedBarrel(stackedBarrel));
-            stackedBarrel.removeDisplayBlock();
-        }
+        if (!unloadedItems.isEmpty())
+            dataSerializer.saveItems(unloadedItems);
+
+        ChunkPosition chunkPosition = new ChunkPosition(chunk);
+        dataHandler.unloadStackedSpawners(chunkPosition);
+        dataHandler.unloadStackedBarrels(chunkPosition);
     }
 
     public <T extends Entity> T spawnEntityWithoutStacking(Location location, Class<T> type, SpawnCause spawnCause, Consumer<T> beforeSpawnConsumer, Consumer<T> afterSpawnConsumer) {
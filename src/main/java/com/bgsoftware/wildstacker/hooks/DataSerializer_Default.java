@@ -5,6 +5,8 @@ import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
 
+import java.util.Collection;
+
 public final class DataSerializer_Default implements IDataSerializer {
 
     private final WildStackerPlugin plugin;
@@ -23,6 +25,11 @@ public final class DataSerializer_Default implements IDataSerializer {
         Executor.sync(() -> plugin.getNMSAdapter().loadEntity(stackedEntity));
     }
 
+    @Override
+    public void saveEntities(Collection<StackedEntity> stackedEntities) {
+        Executor.sync(() -> stackedEntities.forEach(plugin.getNMSAdapter()::saveEntity));
+    }
+
     @Override
     public void saveItem(StackedItem stackedItem) {
         plugin.getNMSAdapter().saveItem(stackedItem);
@@ -3,6 +3,8 @@ package com.bgsoftware.wildstacker.hooks;
 import com.bgsoftware.wildstacker.api.objects.StackedEntity;
 import com.bgsoftware.wildstacker.api.objects.StackedItem;
 
+import java.util.Collection;
+
 public interface IDataSerializer {
 
     void saveEntity(StackedEntity stackedEntity);
@@ -13,4 +15,12 @@ public interface IDataSerializer {
 
     void loadItem(StackedItem stackedItem);
 
+    default void saveEntities(Collection<StackedEntity> stackedEntities) {
+        stackedEntities.forEach(this::saveEntity);
+    }
+
+    default void saveItems(Collection<StackedItem> stackedItems) {
+        stackedItems.forEach(this::saveItem);
+    }
+
 }
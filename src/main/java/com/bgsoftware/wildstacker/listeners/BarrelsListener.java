@@ -212,6 +212,11 @@ public final class BarrelsListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBarrelBreakMonitor(BlockBreakEvent e) {
+        plugin.getSystemManager().validateStackObjectLater(plugin.getDataHandler().getStackedBarrel(e.getBlock().getLocation()));
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBarrelClick(PlayerInteractEvent e) {
         if (!plugin.getSettings().barrelsStackingEnabled)
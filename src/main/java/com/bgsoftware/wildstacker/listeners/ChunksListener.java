@@ -1,6 +1,7 @@
 package com.bgsoftware.wildstacker.listeners;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.tasks.ChunkLoadTask;
 import org.bukkit.Chunk;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -29,7 +30,7 @@ public final class ChunksListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkLoad(ChunkLoadEvent e) {
         if (loadedData)
-            plugin.getSystemManager().handleChunkLoad(e.getChunk());
+            ChunkLoadTask.queue(e.getChunk());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -45,7 +46,7 @@ public final class ChunksListener implements Listener {
     public void onWorldLoad(WorldLoadEvent e){
         if (loadedData){
             for(Chunk chunk : e.getWorld().getLoadedChunks()){
-                plugin.getSystemManager().handleChunkLoad(chunk);
+                ChunkLoadTask.queue(chunk);
             }
         }
     }
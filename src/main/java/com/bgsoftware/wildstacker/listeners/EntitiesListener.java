@@ -10,6 +10,7 @@ import com.bgsoftware.wildstacker.hooks.PluginHooks;
 import com.bgsoftware.wildstacker.hooks.ProtocolLibHook;
 import com.bgsoftware.wildstacker.listeners.events.EntityPickupItemEvent;
 import com.bgsoftware.wildstacker.objects.WStackedEntity;
+import com.bgsoftware.wildstacker.tasks.StackTask;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.Random;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
@@ -60,6 +61,8 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityEnterBlockEvent;
+import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.entity.EntityTameEvent;
 import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
 import org.bukkit.event.entity.EntityTeleportEvent;
 import org.bukkit.event.entity.SheepDyeWoolEvent;
@@ -138,6 +141,11 @@ public final class EntitiesListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeathCacheClear(EntityDeathEvent e) {
+        plugin.getSystemManager().validateStackObjectLater(plugin.getDataHandler().CACHED_ENTITIES.get(e.getEntity().getEntityId()));
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void onEntityPickup(EntityPickupItemEvent e) {
         if (EntityStorage.hasMetadata(e.getEntity(), EntityFlag.CORPSE)) {
@@ -257,6 +265,16 @@ public final class EntitiesListener implements Listener {
             e.setCancelled(true);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityWorldChange(EntityTeleportEvent e) {
+        handleEntityWorldChange(e.getEntity(), e.getFrom(), e.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityPortalWorldChange(EntityPortalEvent e) {
+        handleEntityWorldChange(e.getEntity(), e.getFrom(), e.getTo());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void onEntitySpawnLow(CreatureSpawnEvent e) {
         if (EntityUtils.isStackable(e.getEntity()) && EntityTypes.fromEntity(e.getEntity()).isSlime()) {
@@ -376,6 +394,8 @@ public final class EntitiesListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onSheepDye(SheepDyeWoolEvent e) {
+        invalidateStackSignature(e.getEntity());
+
         if (!plugin.getSettings().entitiesStackingEnabled || !StackSplit.SHEEP_DYE.isEnabled())
             return;
 
@@ -386,6 +406,7 @@ public final class EntitiesListener implements Listener {
         Executor.sync(() -> {
             if (stackedEntity.getStackAmount() > 1) {
                 e.getEntity().setColor(originalColor);
+                ((WStackedEntity) stackedEntity).invalidateStackSignature();
                 stackedEntity.decreaseStackAmount(1, true);
                 StackedEntity duplicate = stackedEntity.spawnDuplicate(1);
                 ((Sheep) duplicate.getLivingEntity()).setColor(e.getColor());
@@ -403,6 +424,8 @@ public final class EntitiesListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onWoolRegrow(SheepRegrowWoolEvent e) {
+        invalidateStackSignature(e.getEntity());
+
         if (!plugin.getSettings().entitiesStackingEnabled)
             return;
 
@@ -414,6 +437,7 @@ public final class EntitiesListener implements Listener {
         Executor.sync(() -> {
             if (stackedEntity.getStackAmount() > 1) {
                 e.getEntity().setSheared(true);
+                ((WStackedEntity) stackedEntity).invalidateStackSignature();
                 stackedEntity.decreaseStackAmount(1, true);
                 StackedEntity duplicated = stackedEntity.spawnDuplicate(1);
                 ((Sheep) duplicated.getLivingEntity()).setSheared(false);
@@ -424,6 +448,11 @@ public final class EntitiesListener implements Listener {
         }, 1L);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTame(EntityTameEvent e) {
+        invalidateStackSignature(e.getEntity());
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onEntityNameTag(PlayerInteractEntityEvent e) {
         ItemStack inHand = e.getPlayer().getInventory().getItemInHand();
@@ -683,9 +712,10 @@ public final class EntitiesListener implements Listener {
     // Handle entity removed from world.
     public void handleEntityRemove(Entity entity) {
         if (EntityUtils.isStackable(entity)) {
-            plugin.getDataHandler().CACHED_ENTITIES.remove(entity.getUniqueId());
+            plugin.getDataHandler().CACHED_ENTITIES.remove(entity.getEntityId());
+            plugin.getDataHandler().removeLinkedSpawners((LivingEntity) entity);
         } else if (entity instanceof Item) {
-            plugin.getDataHandler().CACHED_ITEMS.remove(entity.getUniqueId());
+            plugin.getDataHandler().CACHED_ITEMS.remove(entity.getEntityId());
         }
         EntityStorage.clearMetadata(entity);
     }
@@ -753,8 +783,11 @@ public final class EntitiesListener implements Listener {
             return;
 
         if (!plugin.getSettings().spawnersStackingEnabled && !PluginHooks.isMergedSpawnersEnabled &&
-                spawnReason == CreatureSpawnEvent.SpawnReason.SPAWNER)
+                spawnReason == CreatureSpawnEvent.SpawnReason.SPAWNER) {
+            // The entity is not stacked when it spawns, so it's left to the stacking task.
+            StackTask.prioritize(entity);
             return;
+        }
 
         Consumer<Optional<LivingEntity>> entityConsumer = entityOptional -> {
             if (!entityOptional.isPresent())
@@ -770,7 +803,20 @@ public final class EntitiesListener implements Listener {
             stackedEntity.runStackAsync(entityConsumer);
     }
 
+    private void handleEntityWorldChange(Entity entity, Location from, Location to) {
+        // Entities can be nerfed only in some worlds, so their nerfed status is updated when they move between worlds.
+        if (to == null || from.getWorld().equals(to.getWorld()) || !EntityUtils.isStackable(entity))
+            return;
+
+        Executor.sync(() -> {
+            if (entity.isValid())
+                WStackedEntity.of(entity).updateNerfed();
+        }, 1L);
+    }
+
     private void handleEntityShear(Cancellable cancellable, Entity entity) {
+        invalidateStackSignature(entity);
+
         if (!plugin.getSettings().entitiesStackingEnabled || !EntityUtils.isStackable(entity))
             return;
 
@@ -798,6 +844,7 @@ public final class EntitiesListener implements Listener {
                 Executor.sync(() -> {
                     if (stackAmount > 1) {
                         ((Sheep) entity).setSheared(false);
+                        ((WStackedEntity) stackedEntity).invalidateStackSignature();
                         stackedEntity.setStackAmount(stackAmount - 1, true);
                         StackedEntity duplicate = stackedEntity.spawnDuplicate(1);
                         ((Sheep) duplicate.getLivingEntity()).setSheared(true);
@@ -815,6 +862,12 @@ public final class EntitiesListener implements Listener {
         }
     }
 
+    private void invalidateStackSignature(Entity entity) {
+        StackedEntity stackedEntity = plugin.getDataHandler().CACHED_ENTITIES.get(entity.getEntityId());
+        if (stackedEntity != null)
+            ((WStackedEntity) stackedEntity).invalidateStackSignature();
+    }
+
     private boolean isChunkLimit(Chunk chunk) {
         int chunkLimit = plugin.getSettings().entitiesChunkLimit;
 
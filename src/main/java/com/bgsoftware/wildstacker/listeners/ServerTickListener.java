@@ -12,15 +12,27 @@ import java.util.Set;
 public final class ServerTickListener implements Listener {
 
     private static final Set<Runnable> TICK_END_TASKS = Sets.newConcurrentHashSet();
+    private static boolean registered = false;
+
+    public ServerTickListener(){
+        registered = true;
+    }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onServerTickEnd(ServerTickEndEvent e){
-        TICK_END_TASKS.forEach(Runnable::run);
-        TICK_END_TASKS.clear();
+        // Tasks are removed one by one, so tasks that are added while running others are not lost.
+        for (Runnable tickEndTask : TICK_END_TASKS) {
+            TICK_END_TASKS.remove(tickEndTask);
+            tickEndTask.run();
+        }
     }
 
     public static void addTickEndTask(Runnable code){
         TICK_END_TASKS.add(code);
     }
 
+    public static boolean isRegistered(){
+        return registered;
+    }
+
 }
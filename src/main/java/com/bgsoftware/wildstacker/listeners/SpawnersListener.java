@@ -388,6 +388,16 @@ public final class SpawnersListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void onEntityExplodeMonitor(EntityExplodeEvent e) {
         explodableSources.remove(e.getEntity());
+
+        if (!e.isCancelled()) {
+            for (Block block : e.blockList())
+                plugin.getSystemManager().validateStackObjectLater(plugin.getDataHandler().getStackedSpawner(block.getLocation()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreakMonitor(BlockBreakEvent e) {
+        plugin.getSystemManager().validateStackObjectLater(plugin.getDataHandler().getStackedSpawner(e.getBlock().getLocation()));
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
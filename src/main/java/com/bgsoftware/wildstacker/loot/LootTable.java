@@ -144,8 +144,8 @@ public class LootTable implements com.bgsoftware.wildstacker.api.loot.LootTable
 
         if (minExp >= 0 && maxExp >= 0) {
             if (alwaysDropsExp || plugin.getNMSAdapter().canDropExp(stackedEntity.getLivingEntity())) {
-                for (int i = 0; i < stackAmount; i++)
-                    exp += Random.nextInt(maxExp - minExp + 1) + minExp;
+                exp = plugin.getSettings().averageExp ? (int) Math.round(stackAmount * ((minExp + maxExp) / 2D)) :
+                        Random.nextUniformSum(minExp, maxExp, stackAmount);
             }
         } else {
             exp = stackAmount * plugin.getNMSAdapter().getEntityExp(stackedEntity.getLivingEntity());
@@ -273,6 +273,10 @@ public interface NMSAdapter {
         ServerTickListener.addTickEndTask(code);
     }
 
+    default boolean canRunAtEndOfTick(){
+        return ServerTickListener.isRegistered();
+    }
+
     /*
      *   Data methods
      */
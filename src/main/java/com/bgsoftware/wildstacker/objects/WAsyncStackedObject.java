@@ -11,21 +11,27 @@ import java.util.function.Consumer;
 @SuppressWarnings("WeakerAccess")
 public abstract class WAsyncStackedObject<T> extends WStackedObject<T> implements AsyncStackedObject<T> {
 
-    private final Object mutex = new Object();
-
     protected WAsyncStackedObject(T object, int stackAmount) {
         super(object, stackAmount);
     }
 
     public abstract int getId();
 
+    /*
+     * Objects are not stacked before the stored data of their table was loaded,
+     * as their stored amounts are only applied once it's loaded.
+     */
+    protected abstract boolean isDataLoaded();
+
     @Override
     public void runStackAsync(StackedObject stackedObject, Consumer<StackResult> stackResult) {
-        StackService.execute(this, stackedObject, () -> {
-            StackResult _stackResult = runStack(stackedObject);
+        if (!isDataLoaded()) {
             if (stackResult != null)
-                stackResult.accept(_stackResult);
-        });
+                stackResult.accept(StackResult.THREAD_CATCHER);
+            return;
+        }
+
+        StackService.execute(this, stackedObject, () -> runStack(stackedObject), stackResult);
     }
 
     @Override
@@ -43,8 +49,4 @@ public abstract class WAsyncStackedObject<T> extends WStackedObject<T> implement
         return null;
     }
 
-    public Object getMutex() {
-        return mutex;
-    }
-
 }
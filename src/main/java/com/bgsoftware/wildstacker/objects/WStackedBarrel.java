@@ -6,7 +6,6 @@ import com.bgsoftware.wildstacker.api.enums.StackResult;
 import com.bgsoftware.wildstacker.api.enums.UnstackResult;
 import com.bgsoftware.wildstacker.api.objects.StackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
-import com.bgsoftware.wildstacker.database.Query;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.events.EventsCaller;
@@ -188,9 +187,7 @@ public final class WStackedBarrel extends WStackedHologramObject<Block> implemen
 
         plugin.getSystemManager().removeStackObject(this);
 
-        Query.BARREL_DELETE.getStatementHolder()
-                .setLocation(getLocation())
-                .execute(true);
+        plugin.getDataHandler().deleteBarrel(getLocation());
 
         removeHologram();
         removeDisplayBlock();
@@ -204,12 +201,7 @@ public final class WStackedBarrel extends WStackedHologramObject<Block> implemen
     }
 
     @Override
-    public void updateName() {
-        if (!Bukkit.isPrimaryThread()) {
-            Executor.sync(this::updateName);
-            return;
-        }
-
+    public void applyName() {
         String customName = plugin.getSettings().barrelsCustomName;
 
         if (customName.isEmpty())
@@ -254,18 +246,7 @@ public final class WStackedBarrel extends WStackedHologramObject<Block> implemen
             if (range <= 0)
                 return Optional.empty();
 
-            Location location = getLocation();
-
-            int maxX = location.getBlockX() + range, maxY = location.getBlockY() + range, maxZ = location.getBlockZ() + range;
-            int minX = location.getBlockX() - range, minY = location.getBlockY() - range, minZ = location.getBlockZ() - range;
-
-            barrelStream = plugin.getSystemManager().getStackedBarrels().stream()
-                    .filter(stackedBarrel -> {
-                        Location loc = stackedBarrel.getLocation();
-                        return loc.getBlockX() >= minX && loc.getBlockX() <= maxX &&
-                                loc.getBlockY() >= minY && loc.getBlockY() <= maxY &&
-                                loc.getBlockZ() >= minZ && loc.getBlockZ() <= maxZ;
-                    });
+            barrelStream = plugin.getDataHandler().getStackedBarrels(getLocation(), range).stream();
         }
 
         Optional<StackedBarrel> barrelOptional = GeneralUtils.getClosest(blockLocation, barrelStream
@@ -19,6 +19,7 @@ import com.bgsoftware.wildstacker.loot.LootTable;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
+import com.bgsoftware.wildstacker.utils.entity.EntityFlags;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import com.bgsoftware.wildstacker.utils.entity.StackCheck;
@@ -47,6 +48,7 @@ import org.bukkit.inventory.ItemStack;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -56,19 +58,26 @@ import java.util.stream.Collectors;
 
 public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> implements StackedEntity {
 
+    // Increased when the stack checks or the settings are reloaded, which invalidates all the stack signatures.
+    private static volatile int stackSignaturesVersion = 0;
+
     private final UUID cachedUUID;
     private final int cachedEntityId;
+    private volatile EntityFlags entityFlags;
     private List<ItemStack> drops = null;
     private int dropsMultiplier = 1;
     private SpawnCause spawnCause;
     private int spawnerUpgradeId = 0;
     private Predicate<LivingEntity> stackFlag = null;
     private EntityType cachedType;
+    private long stackSignature;
+    private int stackSignatureVersion = -1;
 
     public WStackedEntity(LivingEntity livingEntity) {
         super(livingEntity, 1);
         this.cachedUUID = livingEntity.getUniqueId();
         this.cachedEntityId = livingEntity.getEntityId();
+        this.entityFlags = EntityStorage.getFlags(cachedUUID);
         this.spawnCause = getFlag(EntityFlag.SPAWN_CAUSE);
         setCachedDisplayName(EntityUtils.getFormattedType(getType().name()));
     }
@@ -156,23 +165,25 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
     }
 
     @Override
-    public void updateName() {
+    public void applyName() {
         if (isNameBlacklisted() || hasNameTag())
             return;
 
-        if (!plugin.getDataHandler().CACHED_ENTITIES.containsKey(getUniqueId()))
+        if (!plugin.getDataHandler().CACHED_ENTITIES.containsKey(getId()))
             return;
 
         try {
             String customName = EntityUtils.getEntityName(this);
             boolean nameVisible = (getStackAmount() > 1 || spawnerUpgradeId != 0) && !plugin.getSettings().entitiesHideNames;
 
-            Executor.sync(() -> {
-                setCustomName(customName);
-                setCustomNameVisible(nameVisible);
-                //We update cached values of mcmmo
-                McMMOHook.updateCachedName(object);
-            });
+            // Nothing is sent to the players if the name didn't change.
+            if (Objects.equals(customName, getCustomName()) && nameVisible == isCustomNameVisible())
+                return;
+
+            setCustomName(customName);
+            setCustomNameVisible(nameVisible);
+            //We update cached values of mcmmo
+            McMMOHook.updateCachedName(object);
         } catch (NullPointerException ignored) {
         }
     }
@@ -272,19 +283,26 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         if (!shouldBeStacked() || !((WStackedEntity) targetEntity).shouldBeStacked())
             return StackResult.NOT_SIMILAR;
 
-        if (!EventsCaller.callEntityStackEvent(targetEntity, this))
+        // The amount is reserved before the event is called, so no other stack can take it in the meantime.
+        int stackAmount = reserveStackAmount();
+
+        if (stackAmount <= 0)
+            return StackResult.NOT_SIMILAR;
+
+        if (!EventsCaller.callEntityStackEvent(targetEntity, this)) {
+            releaseStackAmount(stackAmount);
             return StackResult.EVENT_CANCELLED;
+        }
 
         double health = GeneralUtils.contains(plugin.getSettings().keepLowestHealth, this) ?
                 Math.min(getHealth(), targetEntity.getHealth()) : targetEntity.getHealth();
 
-        targetEntity.increaseStackAmount(getStackAmount(), false);
+        if (!transferStackAmount((WStackedEntity) targetEntity, stackAmount))
+            return StackResult.NOT_SIMILAR;
+
         targetEntity.setHealth(Math.max(health, 0.5D));
 
-        Executor.sync(() -> {
-            if (targetEntity.getLivingEntity().isValid())
-                targetEntity.updateName();
-        }, 2L);
+        targetEntity.updateName();
 
         plugin.getSystemManager().updateLinkedEntity(object, targetEntity.getLivingEntity());
 
@@ -536,6 +554,7 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
     @Override
     public void setSpawnCause(SpawnCause spawnCause) {
         this.spawnCause = spawnCause == null ? SpawnCause.CHUNK_GEN : spawnCause;
+        invalidateStackSignature();
         if (saveData)
             plugin.getSystemManager().markToBeSaved(this);
     }
@@ -550,6 +569,7 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
     @Override
     public void setNerfed(boolean nerfed) {
         plugin.getNMSAdapter().setNerfedEntity(object, nerfed);
+        invalidateStackSignature();
     }
 
     @Override
@@ -579,22 +599,22 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     @Override
     public boolean hasFlag(EntityFlag entityFlag) {
-        return EntityStorage.hasMetadata(cachedUUID, entityFlag);
+        return getEntityFlags(false).has(entityFlag);
     }
 
     @Override
     public <T> T getFlag(EntityFlag entityFlag) {
-        return EntityStorage.getMetadata(cachedUUID, entityFlag);
+        return EntityStorage.getMetadata(getEntityFlags(false), entityFlag, null);
     }
 
     @Override
     public void setFlag(EntityFlag entityFlag, Object value) {
-        EntityStorage.setMetadata(cachedUUID, entityFlag, value);
+        getEntityFlags(true).set(entityFlag, value);
     }
 
     @Override
     public void removeFlag(EntityFlag entityFlag) {
-        EntityStorage.removeMetadata(cachedUUID, entityFlag);
+        getEntityFlags(false).remove(entityFlag);
     }
 
     @Override
@@ -607,8 +627,19 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         return cachedEntityId;
     }
 
+    @Override
+    protected boolean isDataLoaded() {
+        return plugin.getDataHandler().isTableLoaded("entities");
+    }
+
     @Override
     public void runStackAsync(Consumer<Optional<LivingEntity>> result) {
+        if (!isDataLoaded()) {
+            if (result != null)
+                result.accept(Optional.empty());
+            return;
+        }
+
         // Should be called sync due to collecting nearby entities
         if (!Bukkit.isPrimaryThread()) {
             Executor.sync(() -> runStackAsync(result));
@@ -624,8 +655,14 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
             return;
         }
 
-        List<StackedEntity> nearbyEntities = EntitiesGetter.getNearbyEntities(entityLocation, range, EntityUtils::isStackable)
-                .map(WStackedEntity::of).filter(stackedEntity -> runStackCheck(stackedEntity) == StackCheckResult.SUCCESS)
+        // The signature of this entity is always calculated again, as it may have changed without an event.
+        invalidateStackSignature();
+        long stackSignature = getStackSignature();
+
+        List<StackedEntity> nearbyEntities = EntitiesGetter.getNearbyStackables(entityLocation, range, getType())
+                .map(WStackedEntity::of)
+                .filter(stackedEntity -> ((WStackedEntity) stackedEntity).getStackSignature() == stackSignature &&
+                        runStackCheck(stackedEntity) == StackCheckResult.SUCCESS)
                 .collect(Collectors.toList());
 
         if (!nearbyEntities.isEmpty()) {
@@ -664,6 +701,19 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
         }
     }
 
+    private EntityFlags getEntityFlags(boolean create) {
+        EntityFlags entityFlags = this.entityFlags;
+
+        if (entityFlags.isDetached()) {
+            // The flags were cleared. A detached object is empty, so a new one is only registered when a flag is set.
+            EntityFlags storedFlags = create ? EntityStorage.getFlags(cachedUUID) : EntityStorage.getStoredFlags(cachedUUID);
+            if (storedFlags != null)
+                this.entityFlags = entityFlags = storedFlags;
+        }
+
+        return entityFlags;
+    }
+
     private void removeEntity() {
         object.remove();
         Executor.sync(this::clearFlags, 100L);
@@ -708,6 +758,7 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     public void setNameTag() {
         setFlag(EntityFlag.NAME_TAG, true);
+        invalidateStackSignature();
         if (saveData)
             plugin.getSystemManager().markToBeSaved(this);
     }
@@ -770,5 +821,25 @@ public final class WStackedEntity extends WAsyncStackedObject<LivingEntity> impl
 
     public void setUpgradeId(int spawnerUpgradeId) {
         this.spawnerUpgradeId = spawnerUpgradeId;
+        invalidateStackSignature();
+    }
+
+    public long getStackSignature() {
+        int signaturesVersion = stackSignaturesVersion;
+
+        if (stackSignatureVersion != signaturesVersion) {
+            stackSignature = EntityUtils.getStackSignature(this);
+            stackSignatureVersion = signaturesVersion;
+        }
+
+        return stackSignature;
+    }
+
+    public void invalidateStackSignature() {
+        stackSignatureVersion = -1;
+    }
+
+    public static void invalidateStackSignatures() {
+        stackSignaturesVersion++;
     }
 }
@@ -1,19 +1,24 @@
 package com.bgsoftware.wildstacker.objects;
 
 import com.bgsoftware.wildstacker.utils.holograms.Hologram;
+import com.bgsoftware.wildstacker.utils.names.NamesUpdater;
 
 public abstract class WStackedHologramObject<T> extends WStackedObject<T> {
 
     protected Hologram hologram;
+    private String hologramName = null;
 
     protected WStackedHologramObject(T object, int stackAmount) {
         super(object, stackAmount);
     }
 
     public void removeHologram() {
+        NamesUpdater.cancel(this);
+
         if (hologram != null) {
             hologram.removeHologram();
             hologram = null;
+            hologramName = null;
         }
     }
 
@@ -22,13 +27,17 @@ public abstract class WStackedHologramObject<T> extends WStackedObject<T> {
             if (!createIfNull)
                 return;
             hologram = plugin.getNMSHolograms().createHologram(getLocation().add(0.5, 1, 0.5));
+        } else if (name.equals(hologramName)) {
+            return;
         }
 
         hologram.setHologramName(name);
+        hologramName = name;
     }
 
     public Hologram createHologram() {
         hologram = plugin.getNMSHolograms().createHologram(getLocation().add(0.5, 1, 0.5));
+        hologramName = null;
         return hologram;
     }
 
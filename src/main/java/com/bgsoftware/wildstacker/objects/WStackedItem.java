@@ -7,6 +7,7 @@ import com.bgsoftware.wildstacker.api.enums.UnstackResult;
 import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.hooks.CoreProtectHook;
+import com.bgsoftware.wildstacker.tasks.ItemsMerger;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.entity.EntitiesGetter;
 import com.bgsoftware.wildstacker.utils.entity.EntityStorage;
@@ -86,6 +87,7 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
             itemStack.setAmount(Math.min(itemStack.getMaxStackSize(), newStackAmount));
             if (itemStack.getType() != Material.AIR && itemStack.getAmount() > 0)
                 object.setItemStack(itemStack);
+            ItemsMerger.markDirty(object);
         }
     }
 
@@ -151,7 +153,7 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
     }
 
     @Override
-    public void updateName() {
+    public void applyName() {
         if (!plugin.getSettings().itemsStackingEnabled || !ItemUtils.canPickup(object) || ServerVersion.isLessThan(ServerVersion.v1_8))
             return;
 
@@ -182,14 +184,12 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
             customName = plugin.getSettings().itemsNameBuilder.build(this);
         }
 
-        String CUSTOM_NAME = customName;
+        // Nothing is sent to the players if the name didn't change.
+        if (updateName && !customName.equals(getCustomName()))
+            setCustomName(customName);
 
-        Executor.sync(() -> {
-            if (updateName) {
-                setCustomName(CUSTOM_NAME);
-            }
+        if (updateName != isCustomNameVisible())
             setCustomNameVisible(updateName);
-        });
 
         if (saveData)
             plugin.getSystemManager().markToBeSaved(this);
@@ -232,15 +232,21 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
 
         StackedItem targetItem = (StackedItem) stackedObject;
 
-        if (!EventsCaller.callItemStackEvent(targetItem, this))
+        // The amount is reserved before the event is called, so no other stack can take it in the meantime.
+        int stackAmount = reserveStackAmount();
+
+        if (stackAmount <= 0)
+            return StackResult.NOT_SIMILAR;
+
+        if (!EventsCaller.callItemStackEvent(targetItem, this)) {
+            releaseStackAmount(stackAmount);
             return StackResult.EVENT_CANCELLED;
+        }
 
-        targetItem.increaseStackAmount(getStackAmount(), false);
+        if (!transferStackAmount((WStackedItem) targetItem, stackAmount))
+            return StackResult.NOT_SIMILAR;
 
-        Executor.sync(() -> {
-            if (targetItem.getItem().isValid())
-                targetItem.updateName();
-        }, 2L);
+        targetItem.updateName();
 
         this.remove();
 
@@ -375,8 +381,19 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
      * StackedItem's methods
      */
 
+    @Override
+    protected boolean isDataLoaded() {
+        return plugin.getDataHandler().isTableLoaded("items");
+    }
+
     @Override
     public void runStackAsync(Consumer<Optional<Item>> result) {
+        if (!isDataLoaded()) {
+            if (result != null)
+                result.accept(Optional.empty());
+            return;
+        }
+
         int range = getMergeRadius();
 
         if (range <= 0 || getStackLimit() <= 1) {
@@ -392,7 +409,8 @@ public final class WStackedItem extends WAsyncStackedObject<Item> implements Sta
         }
 
         Location itemLocation = getItem().getLocation();
-        Optional<StackedItem> itemOptional = EntitiesGetter.getNearbyEntities(itemLocation, range, ItemUtils::isStackable)
+        Optional<StackedItem> itemOptional = EntitiesGetter.getNearbyStackables(itemLocation, range, getItemStack().getType())
+                .filter(ItemUtils::isStackable)
                 .map(entity -> WStackedItem.ofBypass((Item) entity))
                 .filter(stackedItem -> runStackCheck(stackedItem) == StackCheckResult.SUCCESS)
                 .findFirst();
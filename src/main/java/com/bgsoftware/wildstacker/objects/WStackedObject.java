@@ -5,6 +5,7 @@ import com.bgsoftware.wildstacker.api.enums.StackCheckResult;
 import com.bgsoftware.wildstacker.api.enums.StackResult;
 import com.bgsoftware.wildstacker.api.enums.UnstackResult;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
+import com.bgsoftware.wildstacker.utils.names.NamesUpdater;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
@@ -18,8 +19,13 @@ public abstract class WStackedObject<T> implements StackedObject<T> {
 
     protected static WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
+    // The amount of objects that their amount was transferred into another object, and are about to be removed.
+    private static final int REMOVED_STACK_AMOUNT = Integer.MIN_VALUE;
+
     protected final T object;
     private final AtomicInteger stackAmount = new AtomicInteger(0);
+    // The amount that is reserved for a transfer, while the stack event of the transfer is called.
+    private volatile int reservedStackAmount = 0;
 
     protected boolean saveData = true;
     private String cachedDisplayName = "";
@@ -51,12 +57,21 @@ public abstract class WStackedObject<T> implements StackedObject<T> {
 
     @Override
     public int getStackAmount() {
-        return Math.max(stackAmount.get(), 0);
+        int stackAmount = this.stackAmount.get();
+        return stackAmount == REMOVED_STACK_AMOUNT ? reservedStackAmount : Math.max(stackAmount, 0);
     }
 
     @Override
     public void setStackAmount(int stackAmount, boolean updateName) {
-        this.stackAmount.set(stackAmount);
+        int currentAmount;
+
+        do {
+            currentAmount = this.stackAmount.get();
+            // The amount of this object was already transferred into another object.
+            if (currentAmount == REMOVED_STACK_AMOUNT)
+                return;
+        } while (!this.stackAmount.compareAndSet(currentAmount, stackAmount));
+
         if (updateName)
             updateName();
 
@@ -65,7 +80,14 @@ public abstract class WStackedObject<T> implements StackedObject<T> {
 
     @Override
     public int increaseStackAmount(int stackAmount, boolean updateName) {
-        int newStackAmount = this.stackAmount.addAndGet(stackAmount);
+        int currentAmount, newStackAmount;
+
+        do {
+            currentAmount = this.stackAmount.get();
+            if (currentAmount == REMOVED_STACK_AMOUNT)
+                return 0;
+            newStackAmount = currentAmount + stackAmount;
+        } while (!this.stackAmount.compareAndSet(currentAmount, newStackAmount));
 
         if (updateName)
             updateName();
@@ -80,6 +102,63 @@ public abstract class WStackedObject<T> implements StackedObject<T> {
         return increaseStackAmount(-stackAmount, updateName);
     }
 
+    /*
+     * Reserves the amount of this object for a transfer, without locking it.
+     * The amount of this object is replaced by the removed state, so it cannot be reserved or transferred twice.
+     * Returns the reserved amount, or 0 if the object has nothing to transfer.
+     */
+    protected int reserveStackAmount() {
+        int stackAmount;
+
+        do {
+            stackAmount = this.stackAmount.get();
+            if (stackAmount <= 0)
+                return 0;
+        } while (!this.stackAmount.compareAndSet(stackAmount, REMOVED_STACK_AMOUNT));
+
+        reservedStackAmount = stackAmount;
+
+        return stackAmount;
+    }
+
+    /*
+     * Restores an amount that was reserved by reserveStackAmount.
+     */
+    protected void releaseStackAmount(int stackAmount) {
+        reservedStackAmount = 0;
+        this.stackAmount.compareAndSet(REMOVED_STACK_AMOUNT, stackAmount);
+    }
+
+    /*
+     * Moves an amount that was reserved by reserveStackAmount into the target object.
+     * If the target was removed as well or its limit was reached, the amount of this object is restored.
+     */
+    protected boolean transferStackAmount(WStackedObject<?> target, int stackAmount) {
+        if (!target.tryIncreaseStackAmount(stackAmount)) {
+            releaseStackAmount(stackAmount);
+            return false;
+        }
+
+        reservedStackAmount = 0;
+
+        return true;
+    }
+
+    private boolean tryIncreaseStackAmount(int stackAmount) {
+        int currentAmount, newStackAmount, stackLimit = getStackLimit();
+
+        do {
+            currentAmount = this.stackAmount.get();
+            if (currentAmount == REMOVED_STACK_AMOUNT || (long) currentAmount + stackAmount > stackLimit)
+                return false;
+            newStackAmount = currentAmount + stackAmount;
+        } while (!this.stackAmount.compareAndSet(currentAmount, newStackAmount));
+
+        onStackAmountChange(newStackAmount);
+
+        return true;
+    }
+
     @Override
     public abstract int getStackLimit();
 
@@ -104,7 +183,14 @@ public abstract class WStackedObject<T> implements StackedObject<T> {
     public abstract void remove();
 
     @Override
-    public abstract void updateName();
+    public void updateName() {
+        NamesUpdater.markDirty(this);
+    }
+
+    /*
+     * Renders the name of the object and applies it. Called once per tick by the NamesUpdater.
+     */
+    public abstract void applyName();
 
     @Override
     public boolean canStackInto(StackedObject stackedObject) {
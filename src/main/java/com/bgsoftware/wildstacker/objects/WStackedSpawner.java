@@ -6,7 +6,6 @@ import com.bgsoftware.wildstacker.api.enums.UnstackResult;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.api.objects.StackedSpawner;
 import com.bgsoftware.wildstacker.api.upgrades.SpawnerUpgrade;
-import com.bgsoftware.wildstacker.database.Query;
 import com.bgsoftware.wildstacker.menu.SpawnersManageMenu;
 import com.bgsoftware.wildstacker.utils.GeneralUtils;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
@@ -35,7 +34,7 @@ import java.util.stream.Stream;
 public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawner> implements StackedSpawner {
 
     private SpawnersManageMenu spawnersManageMenu;
-    private LivingEntity linkedEntity = null;
+    private volatile LivingEntity linkedEntity = null;
     private int spawnerUpgradeId = 0;
     private EntityType cachedEntity;
 
@@ -80,13 +79,13 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
     public LivingEntity getLinkedEntity() {
         if (linkedEntity != null && (!plugin.getSettings().linkedEntitiesEnabled || linkedEntity.isDead() || !linkedEntity.isValid() ||
                 linkedEntity.getLocation().distanceSquared(getLocation()) > Math.pow(plugin.getSettings().linkedEntitiesMaxDistance, 2.0)))
-            linkedEntity = null;
+            setLinkedEntity(null);
         return linkedEntity;
     }
 
     @Override
     public void setLinkedEntity(LivingEntity linkedEntity) {
-        this.linkedEntity = linkedEntity;
+        plugin.getDataHandler().updateLinkedSpawner(this, linkedEntity);
     }
 
     @Override
@@ -98,19 +97,7 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
         if (chunkMerge) {
             spawnerStream = plugin.getSystemManager().getStackedSpawners(getChunk()).stream();
         } else {
-            int range = getMergeRadius();
-            Location location = getLocation();
-
-            int maxX = location.getBlockX() + range, maxY = location.getBlockY() + range, maxZ = location.getBlockZ() + range;
-            int minX = location.getBlockX() - range, minY = location.getBlockY() - range, minZ = location.getBlockZ() - range;
-
-            spawnerStream = plugin.getSystemManager().getStackedSpawners().stream()
-                    .filter(stackedSpawner -> {
-                        Location loc = stackedSpawner.getLocation();
-                        return loc.getBlockX() >= minX && loc.getBlockX() <= maxX &&
-                                loc.getBlockY() >= minY && loc.getBlockY() <= maxY &&
-                                loc.getBlockZ() >= minZ && loc.getBlockZ() <= maxZ;
-                    });
+            spawnerStream = plugin.getDataHandler().getStackedSpawners(getLocation(), getMergeRadius()).stream();
         }
 
         return spawnerStream.filter(this::canStackIntoNoLimit).collect(Collectors.toList());
@@ -173,9 +160,7 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
 
         plugin.getSystemManager().removeStackObject(this);
 
-        Query.SPAWNER_DELETE.getStatementHolder()
-                .setLocation(getLocation())
-                .execute(true);
+        plugin.getDataHandler().deleteSpawner(getLocation());
 
         removeHologram();
 
@@ -187,12 +172,7 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
     }
 
     @Override
-    public void updateName() {
-        if (!Bukkit.isPrimaryThread()) {
-            Executor.sync(this::updateName);
-            return;
-        }
-
+    public void applyName() {
         String customName = plugin.getSettings().spawnersCustomName;
 
         if (customName.isEmpty())
@@ -238,18 +218,7 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
             if (range <= 0)
                 return Optional.empty();
 
-            Location location = getLocation();
-
-            int maxX = location.getBlockX() + range, maxY = location.getBlockY() + range, maxZ = location.getBlockZ() + range;
-            int minX = location.getBlockX() - range, minY = location.getBlockY() - range, minZ = location.getBlockZ() - range;
-
-            spawnerStream = plugin.getSystemManager().getStackedSpawners().stream()
-                    .filter(stackedSpawner -> {
-                        Location loc = stackedSpawner.getLocation();
-                        return loc.getBlockX() >= minX && loc.getBlockX() <= maxX &&
-                                loc.getBlockY() >= minY && loc.getBlockY() <= maxY &&
-                                loc.getBlockZ() >= minZ && loc.getBlockZ() <= maxZ;
-                    });
+            spawnerStream = plugin.getDataHandler().getStackedSpawners(getLocation(), range).stream();
         }
 
         Optional<StackedSpawner> spawnerOptional = GeneralUtils.getClosest(blockLocation, spawnerStream
@@ -396,6 +365,11 @@ public final class WStackedSpawner extends WStackedHologramObject<CreatureSpawne
         return linkedEntity;
     }
 
+    // Should only be called by the data handler, together with updating the spawners of linked entities.
+    public void setRawLinkedEntity(LivingEntity linkedEntity) {
+        this.linkedEntity = linkedEntity;
+    }
+
     public void linkInventory(SpawnersManageMenu spawnersManageMenu) {
         this.spawnersManageMenu = spawnersManageMenu;
     }
@@ -2,7 +2,6 @@ package com.bgsoftware.wildstacker.objects;
 
 import com.bgsoftware.wildstacker.api.objects.StackedBarrel;
 import com.bgsoftware.wildstacker.api.objects.UnloadedStackedBarrel;
-import com.bgsoftware.wildstacker.database.Query;
 import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
 import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
@@ -36,9 +35,7 @@ public final class WUnloadedStackedBarrel extends WUnloadedStackedObject impleme
         if (cachedBarrels != null)
             cachedBarrels.remove(location);
 
-        Query.BARREL_DELETE.getStatementHolder()
-                .setLocation(getLocation())
-                .execute(true);
+        plugin.getDataHandler().deleteBarrel(getLocation());
     }
 
 }
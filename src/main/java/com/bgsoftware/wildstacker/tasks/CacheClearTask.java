@@ -0,0 +1,63 @@
+package com.bgsoftware.wildstacker.tasks;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.objects.StackedObject;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/*
+ * Cached objects are removed by events when they die, despawn, break or unload.
+ * This task only checks the consistency of the cache in the background, a few objects every run.
+ */
+public final class CacheClearTask extends BukkitRunnable {
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    private static final long RUN_INTERVAL = 20L;
+    private static final long ROUND_INTERVAL = 1200L;
+    private static final int OBJECTS_PER_RUN = 500;
+
+    private static BukkitTask task = null;
+
+    private final Queue<StackedObject> roundObjects = new ArrayDeque<>();
+    private long ticksSinceRoundStart = Long.MAX_VALUE;
+
+    private CacheClearTask() {
+        task = runTaskTimer(plugin, RUN_INTERVAL, RUN_INTERVAL);
+    }
+
+    public static void start() {
+        if (task != null)
+            task.cancel();
+
+        new CacheClearTask();
+    }
+
+    @Override
+    public void run() {
+        if (ticksSinceRoundStart != Long.MAX_VALUE)
+            ticksSinceRoundStart += RUN_INTERVAL;
+
+        if (roundObjects.isEmpty()) {
+            if (ticksSinceRoundStart < ROUND_INTERVAL)
+                return;
+
+            roundObjects.addAll(plugin.getDataHandler().getStackedObjects());
+            ticksSinceRoundStart = 0;
+        }
+
+        for (int i = 0; i < OBJECTS_PER_RUN && !roundObjects.isEmpty(); i++) {
+            StackedObject stackedObject = roundObjects.poll();
+            try {
+                plugin.getSystemManager().validateStackObject(stackedObject);
+            } catch (Throwable ex) {
+                WildStackerPlugin.log("An error occurred while validating the object " + stackedObject + ":");
+                ex.printStackTrace();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.bgsoftware.wildstacker.tasks;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/*
+ * Handles loaded chunks over multiple ticks, until the chunks-load-budget of every tick is used.
+ * Chunks that are near players when they are loaded are handled first.
+ * A queued chunk is handled right away when its spawners or barrels are requested, and dropped when it's unloaded.
+ */
+public final class ChunkLoadTask extends BukkitRunnable {
+
+    private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+
+    // Chunks in this distance (in chunks) from players are handled first.
+    private static final int PRIORITY_CHUNKS_DISTANCE = 8;
+
+    // Should only be accessed from the main thread.
+    private static final Map<ChunkPosition, Chunk> pendingChunks = new HashMap<>();
+    private static final Queue<ChunkPosition> priorityChunks = new ArrayDeque<>();
+    private static final Queue<ChunkPosition> regularChunks = new ArrayDeque<>();
+
+    private static BukkitTask task = null;
+
+    private ChunkLoadTask() {
+        task = runTaskTimer(plugin, 1L, 1L);
+    }
+
+    public static void start() {
+        if (task != null)
+            task.cancel();
+
+        new ChunkLoadTask();
+    }
+
+    public static void queue(Chunk chunk) {
+        // The data of the chunk is fetched from the database in the meantime.
+        plugin.getDataHandler().fetchChunkData(chunk);
+
+        if (task == null) {
+            plugin.getSystemManager().handleChunkLoad(chunk);
+            return;
+        }
+
+        ChunkPosition chunkPosition = new ChunkPosition(chunk);
+
+        if (pendingChunks.put(chunkPosition, chunk) != null)
+            return;
+
+        if (isNearPlayer(chunk)) {
+            priorityChunks.add(chunkPosition);
+        } else {
+            regularChunks.add(chunkPosition);
+        }
+    }
+
+    public static void handleChunkNow(Location location) {
+        if (!pendingChunks.isEmpty() && Bukkit.isPrimaryThread())
+            handleChunkNow(new ChunkPosition(location));
+    }
+
+    public static void handleChunksNow(String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        if (pendingChunks.isEmpty() || !Bukkit.isPrimaryThread())
+            return;
+
+        long chunksAmount = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+
+        // When the area covers more chunks than there are pending chunks, the pending chunks are checked instead.
+        if (chunksAmount > pendingChunks.size()) {
+            for (ChunkPosition chunkPosition : new ArrayList<>(pendingChunks.keySet())) {
+                if (chunkPosition.getWorld().equals(world) &&
+                        chunkPosition.getX() >= minChunkX && chunkPosition.getX() <= maxChunkX &&
+                        chunkPosition.getZ() >= minChunkZ && chunkPosition.getZ() <= maxChunkZ)
+                    handleChunkNow(chunkPosition);
+            }
+        } else {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++)
+                    handleChunkNow(new ChunkPosition(world, chunkX, chunkZ));
+            }
+        }
+    }
+
+    public static void remove(Chunk chunk) {
+        // The chunk wasn't handled yet, so its data is still stored as unloaded data.
+        if (!pendingChunks.isEmpty())
+            pendingChunks.remove(new ChunkPosition(chunk));
+    }
+
+    public static int getQueueSize() {
+        return pendingChunks.size();
+    }
+
+    @Override
+    public void run() {
+        if (pendingChunks.isEmpty())
+            return;
+
+        long deadline = System.nanoTime() + plugin.getSettings().chunksLoadBudget;
+
+        // At least one chunk is handled every tick, so the queue always makes progress.
+        do {
+            ChunkPosition chunkPosition = priorityChunks.isEmpty() ? regularChunks.poll() : priorityChunks.poll();
+
+            if (chunkPosition == null)
+                break;
+
+            handleChunkNow(chunkPosition);
+        } while (System.nanoTime() < deadline);
+    }
+
+    private static void handleChunkNow(ChunkPosition chunkPosition) {
+        Chunk chunk = pendingChunks.remove(chunkPosition);
+
+        if (chunk == null)
+            return;
+
+        try {
+            plugin.getSystemManager().handleChunkLoad(chunk);
+        } catch (Throwable ex) {
+            WildStackerPlugin.log("An error occurred while handling the chunk " + chunkPosition.getWorld() + ", " +
+                    chunkPosition.getX() + ", " + chunkPosition.getZ() + ":");
+            ex.printStackTrace();
+        }
+    }
+
+    private static boolean isNearPlayer(Chunk chunk) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Location location = player.getLocation();
+            if (location.getWorld().equals(chunk.getWorld()) &&
+                    Math.abs((location.getBlockX() >> 4) - chunk.getX()) <= PRIORITY_CHUNKS_DISTANCE &&
+                    Math.abs((location.getBlockZ() >> 4) - chunk.getZ()) <= PRIORITY_CHUNKS_DISTANCE)
+                return true;
+        }
+
+        return false;
+    }
+
+}
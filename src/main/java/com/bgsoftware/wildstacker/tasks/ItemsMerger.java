@@ -5,17 +5,39 @@ import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.objects.WStackedItem;
 import com.bgsoftware.wildstacker.utils.items.ItemUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Item;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Runs the stacking logic only for items that spawned, moved or changed their amount since the last run.
+ * Items that are still moving are checked in every run, until they stop.
+ * Items that were lying still are only checked again by a slow sweep of all the worlds.
+ */
 public final class ItemsMerger extends BukkitRunnable {
 
     private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
+    // Amounts of items may be changed from other threads, therefore a concurrent set is used.
+    private static final Set<Item> dirtyItems = ConcurrentHashMap.newKeySet();
+    // Items that were moving in the last run, with their location in that run. Should only be accessed from the main thread.
+    private static final Map<Item, Location> movingItems = new HashMap<>();
+    private static final double MOVEMENT_THRESHOLD = 1.0E-4;
+
     private static BukkitTask task = null;
 
+    private long ticksSinceSweep = 0;
+
     private ItemsMerger() {
         if (plugin.getSettings().itemsStackingEnabled && plugin.getSettings().itemsStackInterval > 0)
             task = runTaskTimer(plugin, plugin.getSettings().itemsStackInterval, plugin.getSettings().itemsStackInterval);
@@ -25,31 +47,92 @@ public final class ItemsMerger extends BukkitRunnable {
         if (task != null)
             task.cancel();
 
+        dirtyItems.clear();
+        movingItems.clear();
+
         new ItemsMerger();
     }
 
+    public static void markDirty(Item item) {
+        if (task != null)
+            dirtyItems.add(item);
+    }
+
     @Override
     public void run() {
-        if (Bukkit.getOnlinePlayers().size() > 0) {
-            for (World world : Bukkit.getWorlds()) {
-                try {
-                    for (Item item : world.getEntitiesByClass(Item.class)) {
-                        try {
-                            if (!ItemUtils.isStackable(item))
-                                continue;
+        ticksSinceSweep += plugin.getSettings().itemsStackInterval;
 
-                            StackedItem stackedItem = WStackedItem.of(item);
+        if (Bukkit.getOnlinePlayers().size() == 0) {
+            dirtyItems.clear();
+            movingItems.clear();
+            return;
+        }
 
-                            if (!stackedItem.isCached())
-                                continue;
+        if (ticksSinceSweep >= plugin.getSettings().itemsSweepInterval) {
+            ticksSinceSweep = 0;
+            dirtyItems.clear();
+            movingItems.clear();
 
-                            stackedItem.runStackAsync(null);
-                        } catch (Throwable ignored) {
-                        }
-                    }
+            for (World world : Bukkit.getWorlds()) {
+                try {
+                    for (Item item : world.getEntitiesByClass(Item.class))
+                        runStack(item);
                 } catch (Throwable ignored) {
                 }
             }
+
+            return;
+        }
+
+        // Moving items are checked again every run, even if they didn't move to another cell of the grid.
+        Iterator<Map.Entry<Item, Location>> movingItemsIterator = movingItems.entrySet().iterator();
+        while (movingItemsIterator.hasNext()) {
+            Map.Entry<Item, Location> movingItem = movingItemsIterator.next();
+            Item item = movingItem.getKey();
+            if (!item.isValid() || !isMoving(item, movingItem.getValue())) {
+                movingItemsIterator.remove();
+            } else {
+                movingItem.setValue(item.getLocation());
+                dirtyItems.add(item);
+            }
         }
+
+        if (dirtyItems.isEmpty())
+            return;
+
+        List<Item> items = new ArrayList<>(dirtyItems);
+        dirtyItems.removeAll(items);
+
+        for (Item item : items) {
+            runStack(item);
+
+            if (item.isValid() && !movingItems.containsKey(item) && isMoving(item, null))
+                movingItems.put(item, item.getLocation());
+        }
+    }
+
+    private static boolean isMoving(Item item, Location lastLocation) {
+        if (item.getVelocity().lengthSquared() > MOVEMENT_THRESHOLD)
+            return true;
+
+        // Items can also be moved without a velocity, for example by pistons.
+        return lastLocation != null && lastLocation.getWorld() == item.getWorld() &&
+                lastLocation.distanceSquared(item.getLocation()) > MOVEMENT_THRESHOLD;
     }
+
+    private static void runStack(Item item) {
+        try {
+            if (!item.isValid() || !ItemUtils.isStackable(item))
+                return;
+
+            StackedItem stackedItem = WStackedItem.of(item);
+
+            if (!stackedItem.isCached())
+                return;
+
+            stackedItem.runStackAsync(null);
+        } catch (Throwable ignored) {
+        }
+    }
+
 }
@@ -2,60 +2,101 @@ package com.bgsoftware.wildstacker.tasks;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
 import com.bgsoftware.wildstacker.api.objects.StackedEntity;
-import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.utils.entity.EntityUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.World;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
+/*
+ * Runs the stacking logic of all the entities, once every stack-interval.
+ * Instead of processing all the entities at once, the task runs every tick and only processes
+ * entities until the stack-budget of the tick is used. Entities that recently spawned or moved are processed first.
+ */
 public final class StackTask extends BukkitRunnable {
 
     private static WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
 
+    // Should only be accessed from the main thread.
+    private static final Set<Integer> prioritizedEntities = new LinkedHashSet<>();
+
     private static BukkitTask task;
 
+    private final Queue<StackedEntity> roundEntities = new ArrayDeque<>();
+    private long ticksSinceRoundStart = Long.MAX_VALUE;
+
     private StackTask() {
         if (plugin.getSettings().entitiesStackingEnabled && plugin.getSettings().entitiesStackInterval > 0)
-            task = runTaskTimer(plugin, plugin.getSettings().entitiesStackInterval, plugin.getSettings().entitiesStackInterval);
+            task = runTaskTimer(plugin, 1L, 1L);
     }
 
     public static void start() {
         if (task != null)
             task.cancel();
 
+        prioritizedEntities.clear();
+
         new StackTask();
     }
 
+    public static void prioritize(LivingEntity livingEntity) {
+        if (task != null)
+            prioritizedEntities.add(livingEntity.getEntityId());
+    }
+
     @Override
     public void run() {
-        if (Bukkit.getOnlinePlayers().size() > 0) {
-            for (World world : Bukkit.getWorlds()) {
-                try {
-                    Set<LivingEntity> livingEntities = ConcurrentHashMap.newKeySet();
-                    livingEntities.addAll(world.getLivingEntities());
-
-                    for (LivingEntity livingEntity : livingEntities) {
-                        try {
-                            if (!EntityUtils.isStackable(livingEntity))
-                                continue;
-
-                            StackedEntity stackedEntity = WStackedEntity.of(livingEntity);
-
-                            if (!stackedEntity.isCached())
-                                continue;
-
-                            stackedEntity.runStackAsync(null);
-                        } catch (Throwable ignored) {
-                        }
-                    }
-                } catch (Throwable ignored) {
-                }
-            }
+        if (ticksSinceRoundStart != Long.MAX_VALUE)
+            ticksSinceRoundStart++;
+
+        if (Bukkit.getOnlinePlayers().size() == 0) {
+            prioritizedEntities.clear();
+            return;
+        }
+
+        long deadline = System.nanoTime() + plugin.getSettings().entitiesStackBudget;
+
+        Iterator<Integer> prioritizedIterator = prioritizedEntities.iterator();
+        while (prioritizedIterator.hasNext() && System.nanoTime() < deadline) {
+            StackedEntity stackedEntity = plugin.getDataHandler().CACHED_ENTITIES.get(prioritizedIterator.next());
+            prioritizedIterator.remove();
+            if (stackedEntity != null)
+                runStack(stackedEntity);
+        }
+
+        // A new round starts once all the entities of the previous round were processed, and stack-interval has passed.
+        if (roundEntities.isEmpty()) {
+            if (ticksSinceRoundStart < plugin.getSettings().entitiesStackInterval)
+                return;
+
+            roundEntities.addAll(plugin.getDataHandler().CACHED_ENTITIES.values());
+            ticksSinceRoundStart = 0;
+        }
+
+        // At least one entity is processed every tick, so the round always makes progress.
+        while (!roundEntities.isEmpty()) {
+            runStack(roundEntities.poll());
+            if (System.nanoTime() >= deadline)
+                break;
+        }
+    }
+
+    private static void runStack(StackedEntity stackedEntity) {
+        try {
+            LivingEntity livingEntity = stackedEntity.getLivingEntity();
+
+            if (!livingEntity.isValid() || !EntityUtils.isStackable(livingEntity) || !stackedEntity.isCached())
+                return;
+
+            stackedEntity.runStackAsync(null);
+        } catch (Throwable ignored) {
         }
     }
+
 }
@@ -4,13 +4,34 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public final class Random {
 
+    // Binomial values with a smaller mean are sampled exactly, bigger ones use a normal approximation.
+    private static final double BINOMIAL_INVERSION_THRESHOLD = 30D;
+    // Sums of less uniform values than this are sampled exactly, bigger ones use a normal approximation.
+    private static final int UNIFORM_SUM_EXACT_THRESHOLD = 32;
+
     public static int nextChance(double chance, int bound) {
-        int result = 0;
+        return nextBinomial(bound, chance / 100);
+    }
 
-        for (int i = 0; i < bound; i++)
-            result += ThreadLocalRandom.current().nextDouble() < (chance / 100) ? 1 : 0;
+    public static int nextBinomial(int trials, double probability) {
+        if (trials <= 0 || probability <= 0)
+            return 0;
 
-        return result;
+        if (probability >= 1)
+            return trials;
+
+        // Successes with probability p are the failures with probability 1 - p, as B(n, p) = n - B(n, 1 - p).
+        // Therefore, we can always sample with a probability that is not bigger than 0.5
+        if (probability > 0.5)
+            return trials - nextBinomial(trials, 1 - probability);
+
+        double mean = trials * probability;
+
+        if (mean < BINOMIAL_INVERSION_THRESHOLD)
+            return nextBinomialInversion(trials, probability);
+
+        double standardDeviation = Math.sqrt(mean * (1 - probability));
+        return (int) ensureRange(0, trials, Math.round(nextGaussian() * standardDeviation + mean));
     }
 
     public static int nextInt(int bound) {
@@ -40,6 +61,48 @@ public final class Random {
         }
     }
 
+    // Get the sum of {amount} random numbers between min and max (inclusive).
+    public static int nextUniformSum(int min, int max, int amount) {
+        if (amount <= 0)
+            return 0;
+
+        if (min == max)
+            return (int) Math.min(Integer.MAX_VALUE, (long) min * amount);
+
+        long range = (long) max - min + 1;
+
+        if (amount < UNIFORM_SUM_EXACT_THRESHOLD) {
+            long result = 0;
+            for (int i = 0; i < amount; i++)
+                result += ThreadLocalRandom.current().nextLong(range) + min;
+            return (int) Math.min(Integer.MAX_VALUE, result);
+        }
+
+        double mean = amount * ((min + (double) max) / 2);
+        double standardDeviation = Math.sqrt(amount * ((double) range * range - 1) / 12);
+        long result = ensureRange((long) min * amount, (long) max * amount,
+                Math.round(nextGaussian() * standardDeviation + mean));
+
+        return (int) Math.min(Integer.MAX_VALUE, result);
+    }
+
+    private static int nextBinomialInversion(int trials, double probability) {
+        double q = 1 - probability;
+        double s = probability / q;
+        double a = (trials + 1) * s;
+        double r = Math.pow(q, trials);
+        double u = ThreadLocalRandom.current().nextDouble();
+        int result = 0;
+
+        while (u > r && result < trials) {
+            u -= r;
+            result++;
+            r *= (a / result) - s;
+        }
+
+        return result;
+    }
+
     private static double nextGaussian() {
         return ThreadLocalRandom.current().nextGaussian();
     }
@@ -60,4 +123,8 @@ public final class Random {
         return Math.min(max, Math.max(min, num));
     }
 
+    private static long ensureRange(long min, long max, long num) {
+        return Math.min(max, Math.max(min, num));
+    }
+
 }
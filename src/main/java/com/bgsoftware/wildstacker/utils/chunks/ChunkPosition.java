@@ -3,8 +3,6 @@ package com.bgsoftware.wildstacker.utils.chunks;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 
-import java.util.Objects;
-
 public final class ChunkPosition {
 
     private final String world;
@@ -38,7 +36,7 @@ public final class ChunkPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(world, x, z);
+        return (world.hashCode() * 31 + x) * 31 + z;
     }
 
     @Override
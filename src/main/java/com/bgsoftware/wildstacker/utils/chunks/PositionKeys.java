@@ -0,0 +1,55 @@
+package com.bgsoftware.wildstacker.utils.chunks;
+
+import org.bukkit.Location;
+
+public final class PositionKeys {
+
+    // Block keys use 26 bits for x and z, and 12 bits for y.
+    private static final int HORIZONTAL_BITS = 26;
+    private static final int VERTICAL_BITS = 12;
+    private static final long HORIZONTAL_MASK = (1L << HORIZONTAL_BITS) - 1;
+    private static final long VERTICAL_MASK = (1L << VERTICAL_BITS) - 1;
+
+    private PositionKeys() {
+
+    }
+
+    public static long getBlockKey(Location location) {
+        return getBlockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public static long getBlockKey(int x, int y, int z) {
+        return ((x & HORIZONTAL_MASK) << (HORIZONTAL_BITS + VERTICAL_BITS)) |
+                ((z & HORIZONTAL_MASK) << VERTICAL_BITS) |
+                (y & VERTICAL_MASK);
+    }
+
+    public static int getBlockX(long blockKey) {
+        return (int) (blockKey >> (HORIZONTAL_BITS + VERTICAL_BITS));
+    }
+
+    public static int getBlockY(long blockKey) {
+        return (int) (blockKey << (64 - VERTICAL_BITS) >> (64 - VERTICAL_BITS));
+    }
+
+    public static int getBlockZ(long blockKey) {
+        return (int) (blockKey << (64 - HORIZONTAL_BITS - VERTICAL_BITS) >> (64 - HORIZONTAL_BITS));
+    }
+
+    public static long getChunkKey(Location location) {
+        return getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int getChunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public static int getChunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+}
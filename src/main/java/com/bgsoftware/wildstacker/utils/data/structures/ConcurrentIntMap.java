@@ -0,0 +1,54 @@
+package com.bgsoftware.wildstacker.utils.data.structures;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/*
+ * A concurrent map of int keys, such as entity ids.
+ * The keys are widened and stored in a ConcurrentLongMap, so both maps share a single implementation.
+ */
+public final class ConcurrentIntMap<V> {
+
+    private final ConcurrentLongMap<V> map = new ConcurrentLongMap<>();
+
+    public V get(int key) {
+        return map.get(key);
+    }
+
+    public boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    public V put(int key, V value) {
+        return map.put(key, value);
+    }
+
+    public V computeIfAbsent(int key, IntFunction<V> mappingFunction) {
+        return map.computeIfAbsent(key, widenedKey -> mappingFunction.apply((int) widenedKey));
+    }
+
+    public V remove(int key) {
+        return map.remove(key);
+    }
+
+    public boolean remove(int key, V value) {
+        return map.remove(key, value);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public List<V> values() {
+        return map.values();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+}
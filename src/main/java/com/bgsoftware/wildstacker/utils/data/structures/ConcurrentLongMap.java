@@ -0,0 +1,226 @@
+package com.bgsoftware.wildstacker.utils.data.structures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/*
+ * A concurrent map of long keys, based on open-addressing tables.
+ * The map is split into segments, each one is modified under its own lock, while reads don't lock at all.
+ * Keys are kept in a primitive array, so no boxing or entry objects are needed.
+ * ConcurrentIntMap delegates to this class, so fixes here apply to both maps.
+ */
+@SuppressWarnings("unchecked")
+public final class ConcurrentLongMap<V> {
+
+    private static final int SEGMENTS_SHIFT = 4;
+    private static final int SEGMENTS_AMOUNT = 1 << SEGMENTS_SHIFT;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    // Marks a slot of a removed key. Slots are never reused until the table is rebuilt,
+    // so a key of a slot never changes after the slot was published.
+    private static final Object REMOVED = new Object();
+
+    private final Segment[] segments = new Segment[SEGMENTS_AMOUNT];
+
+    public ConcurrentLongMap() {
+        for (int i = 0; i < segments.length; i++)
+            segments[i] = new Segment();
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        return (V) segments[hash >>> (32 - SEGMENTS_SHIFT)].get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Values cannot be null.");
+
+        int hash = hash(key);
+        return (V) segments[hash >>> (32 - SEGMENTS_SHIFT)].put(key, hash, value);
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> mappingFunction) {
+        V value = get(key);
+
+        if (value != null)
+            return value;
+
+        int hash = hash(key);
+        return (V) segments[hash >>> (32 - SEGMENTS_SHIFT)].computeIfAbsent(key, hash, mappingFunction);
+    }
+
+    public V remove(long key) {
+        int hash = hash(key);
+        return (V) segments[hash >>> (32 - SEGMENTS_SHIFT)].remove(key, hash, null);
+    }
+
+    public boolean remove(long key, V value) {
+        int hash = hash(key);
+        return segments[hash >>> (32 - SEGMENTS_SHIFT)].remove(key, hash, value) != null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size;
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (Segment segment : segments)
+            segment.collectValues((List<Object>) values);
+        return values;
+    }
+
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clear();
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+    }
+
+    private static final class Segment {
+
+        private volatile Table table = new Table(MINIMUM_CAPACITY);
+        private volatile int size = 0;
+        // Amount of slots that are either used or removed.
+        private int usedSlots = 0;
+
+        Object get(long key, int hash) {
+            Table table = this.table;
+
+            for (int i = hash & table.mask; ; i = (i + 1) & table.mask) {
+                // The value is read first, as it's written after the key.
+                Object value = table.values.get(i);
+                if (value == null)
+                    return null;
+                if (value != REMOVED && table.keys[i] == key)
+                    return value;
+            }
+        }
+
+        synchronized Object put(long key, int hash, Object value) {
+            Table table = this.table;
+
+            for (int i = hash & table.mask; ; i = (i + 1) & table.mask) {
+                Object currentValue = table.values.get(i);
+
+                if (currentValue == null) {
+                    table.keys[i] = key;
+                    table.values.set(i, value);
+                    size++;
+                    if (++usedSlots * 2 > table.keys.length)
+                        rebuild();
+                    return null;
+                }
+
+                if (currentValue != REMOVED && table.keys[i] == key) {
+                    table.values.set(i, value);
+                    return currentValue;
+                }
+            }
+        }
+
+        synchronized Object computeIfAbsent(long key, int hash, LongFunction<?> mappingFunction) {
+            Object value = get(key, hash);
+
+            if (value == null) {
+                value = mappingFunction.apply(key);
+                if (value != null)
+                    put(key, hash, value);
+            }
+
+            return value;
+        }
+
+        synchronized Object remove(long key, int hash, Object expectedValue) {
+            Table table = this.table;
+
+            for (int i = hash & table.mask; ; i = (i + 1) & table.mask) {
+                Object currentValue = table.values.get(i);
+
+                if (currentValue == null)
+                    return null;
+
+                if (currentValue != REMOVED && table.keys[i] == key) {
+                    if (expectedValue != null && expectedValue != currentValue)
+                        return null;
+                    table.values.set(i, REMOVED);
+                    size--;
+                    return currentValue;
+                }
+            }
+        }
+
+        synchronized void collectValues(List<Object> values) {
+            Table table = this.table;
+            for (int i = 0; i < table.keys.length; i++) {
+                Object value = table.values.get(i);
+                if (value != null && value != REMOVED)
+                    values.add(value);
+            }
+        }
+
+        synchronized void clear() {
+            table = new Table(MINIMUM_CAPACITY);
+            size = 0;
+            usedSlots = 0;
+        }
+
+        private void rebuild() {
+            Table oldTable = this.table;
+
+            int capacity = MINIMUM_CAPACITY;
+            while (capacity < size * 4)
+                capacity <<= 1;
+
+            Table newTable = new Table(capacity);
+
+            for (int i = 0; i < oldTable.keys.length; i++) {
+                Object value = oldTable.values.get(i);
+                if (value != null && value != REMOVED) {
+                    long key = oldTable.keys[i];
+                    int slot = hash(key) & newTable.mask;
+                    while (newTable.values.get(slot) != null)
+                        slot = (slot + 1) & newTable.mask;
+                    newTable.keys[slot] = key;
+                    newTable.values.set(slot, value);
+                }
+            }
+
+            usedSlots = size;
+            this.table = newTable;
+        }
+
+    }
+
+}
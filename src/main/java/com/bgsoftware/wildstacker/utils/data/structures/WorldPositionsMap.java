@@ -0,0 +1,63 @@
+package com.bgsoftware.wildstacker.utils.data.structures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/*
+ * A concurrent map of positions, keyed by the world name and a packed position key.
+ * Each world has its own map of long keys, so positions are never boxed.
+ */
+public final class WorldPositionsMap<V> {
+
+    private final Map<String, ConcurrentLongMap<V>> worlds = new ConcurrentHashMap<>();
+
+    public V get(String world, long key) {
+        ConcurrentLongMap<V> worldMap = worlds.get(world);
+        return worldMap == null ? null : worldMap.get(key);
+    }
+
+    public boolean containsKey(String world, long key) {
+        return get(world, key) != null;
+    }
+
+    public V put(String world, long key, V value) {
+        return worlds.computeIfAbsent(world, w -> new ConcurrentLongMap<>()).put(key, value);
+    }
+
+    public V computeIfAbsent(String world, long key, LongFunction<V> mappingFunction) {
+        return worlds.computeIfAbsent(world, w -> new ConcurrentLongMap<>()).computeIfAbsent(key, mappingFunction);
+    }
+
+    public V remove(String world, long key) {
+        ConcurrentLongMap<V> worldMap = worlds.get(world);
+        return worldMap == null ? null : worldMap.remove(key);
+    }
+
+    public int size(String world) {
+        ConcurrentLongMap<V> worldMap = worlds.get(world);
+        return worldMap == null ? 0 : worldMap.size();
+    }
+
+    public List<V> values(String world) {
+        ConcurrentLongMap<V> worldMap = worlds.get(world);
+        return worldMap == null ? new ArrayList<>() : worldMap.values();
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentLongMap<V> worldMap : worlds.values())
+            size += worldMap.size();
+        return size;
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (ConcurrentLongMap<V> worldMap : worlds.values())
+            values.addAll(worldMap.values());
+        return values;
+    }
+
+}
@@ -1,12 +1,21 @@
 package com.bgsoftware.wildstacker.utils.entity;
 
 import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.tasks.ItemsMerger;
+import com.bgsoftware.wildstacker.tasks.StackTask;
 import com.bgsoftware.wildstacker.utils.chunks.ChunkPosition;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -29,9 +38,62 @@ public final class EntitiesGetter {
                 }
             });
 
+    private static StackablesGrid stackablesGrid = new StackablesGrid(4);
+    private static BukkitTask sweepTask = null;
+
+    public static void start() {
+        if (!Bukkit.isPrimaryThread()) {
+            Executor.sync(EntitiesGetter::start);
+            return;
+        }
+
+        if (sweepTask != null)
+            sweepTask.cancel();
+
+        stackablesGrid = new StackablesGrid(plugin.getSettings().stackablesGridCellShift);
+
+        for (World world : Bukkit.getWorlds()) {
+            for (Entity entity : world.getEntities()) {
+                if (isStackable(entity))
+                    stackablesGrid.add(entity);
+            }
+        }
+
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> stackablesGrid.sweep(EntitiesGetter::handleEntityMove), 20L, 20L);
+    }
+
+    // Spawned entities are not prioritized by the stacking tasks, as the spawn listeners already stack them.
     public static void handleEntitySpawn(Entity entity) {
         ChunkPosition chunkPosition = new ChunkPosition(entity.getLocation());
         entitiesCache.getUnchecked(chunkPosition).add(entity);
+        stackablesGrid.add(entity);
+    }
+
+    private static void handleEntityMove(Entity entity) {
+        if (entity instanceof LivingEntity)
+            StackTask.prioritize((LivingEntity) entity);
+        else if (entity instanceof Item)
+            ItemsMerger.markDirty((Item) entity);
+    }
+
+    public static void handleChunkLoad(Chunk chunk) {
+        for (Entity entity : chunk.getEntities()) {
+            if (isStackable(entity))
+                stackablesGrid.add(entity);
+        }
+    }
+
+    public static void handleChunkUnload(Chunk chunk) {
+        for (Entity entity : chunk.getEntities())
+            stackablesGrid.remove(entity);
+    }
+
+    /*
+     * Returns the stackable entities (or dropped items) near the location, of the given type.
+     * For entities, the type is their EntityType. For items, the type is the Material of their item.
+     */
+    public static Stream<Entity> getNearbyStackables(Location location, int range, Object type) {
+        return stackablesGrid.getNearbyEntities(location, range, type).stream();
     }
 
     public static Stream<Entity> getNearbyEntities(Location location, int range, Predicate<Entity> filter) {
@@ -68,6 +130,10 @@ public final class EntitiesGetter {
         );
     }
 
+    private static boolean isStackable(Entity entity) {
+        return EntityUtils.isStackable(entity) || plugin.getNMSAdapter().isDroppedItem(entity);
+    }
+
     private static boolean isInRange(Location location, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
         int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
         return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
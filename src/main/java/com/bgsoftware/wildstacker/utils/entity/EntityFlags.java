@@ -0,0 +1,103 @@
+package com.bgsoftware.wildstacker.utils.entity;
+
+import com.bgsoftware.wildstacker.api.enums.EntityFlag;
+
+/*
+ * The flags of a single entity.
+ * Which flags are set and the values of the boolean flags are kept as bitmasks, while the values of
+ * the other flags are kept in a small array that is only created when one of them is set.
+ * Reading a flag doesn't require any locking.
+ */
+public final class EntityFlags {
+
+    private static final int[] VALUES_INDEXES = new int[EntityFlag.values().length];
+    private static final int VALUES_AMOUNT;
+
+    static {
+        int valuesAmount = 0;
+        for (EntityFlag entityFlag : EntityFlag.values())
+            VALUES_INDEXES[entityFlag.ordinal()] = isBooleanFlag(entityFlag) ? -1 : valuesAmount++;
+        VALUES_AMOUNT = valuesAmount;
+    }
+
+    private volatile long setFlags = 0;
+    private volatile long booleanValues = 0;
+    private volatile Object[] values = null;
+    private volatile boolean detached = false;
+
+    public boolean has(EntityFlag entityFlag) {
+        return (setFlags & getBit(entityFlag)) != 0;
+    }
+
+    public Object get(EntityFlag entityFlag) {
+        long bit = getBit(entityFlag);
+
+        if ((setFlags & bit) == 0)
+            return null;
+
+        int valueIndex = VALUES_INDEXES[entityFlag.ordinal()];
+
+        if (valueIndex == -1)
+            return (booleanValues & bit) != 0;
+
+        Object[] values = this.values;
+        return values == null ? null : values[valueIndex];
+    }
+
+    public synchronized void set(EntityFlag entityFlag, Object value) {
+        if (value == null) {
+            remove(entityFlag);
+            return;
+        }
+
+        long bit = getBit(entityFlag);
+        int valueIndex = VALUES_INDEXES[entityFlag.ordinal()];
+
+        if (valueIndex == -1) {
+            booleanValues = Boolean.TRUE.equals(value) ? booleanValues | bit : booleanValues & ~bit;
+        } else {
+            if (values == null)
+                values = new Object[VALUES_AMOUNT];
+            values[valueIndex] = value;
+        }
+
+        // The bit is set last, so readers that see it also see the value.
+        setFlags |= bit;
+    }
+
+    public synchronized void remove(EntityFlag entityFlag) {
+        long bit = getBit(entityFlag);
+        int valueIndex = VALUES_INDEXES[entityFlag.ordinal()];
+
+        setFlags &= ~bit;
+        booleanValues &= ~bit;
+
+        if (valueIndex != -1 && values != null)
+            values[valueIndex] = null;
+    }
+
+    public synchronized void clear() {
+        setFlags = 0;
+        booleanValues = 0;
+        values = null;
+    }
+
+    // Called when the flags are removed from the storage. Holders of this object should look up the flags again.
+    synchronized void detach() {
+        clear();
+        detached = true;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    private static long getBit(EntityFlag entityFlag) {
+        return 1L << entityFlag.ordinal();
+    }
+
+    private static boolean isBooleanFlag(EntityFlag entityFlag) {
+        return entityFlag.getValueClass() == Boolean.class;
+    }
+
+}
@@ -6,20 +6,31 @@ import org.bukkit.entity.Entity;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/*
+ * Flags of entities, by their uuid.
+ * Stacked entities keep a reference to their flags object, and access their flags without looking them up here.
+ * When the flags of an entity are cleared, its flags object is detached, so there is only one live object per entity.
+ */
 @SuppressWarnings("unchecked")
 public final class EntityStorage {
 
-    private static final Map<UUID, FlagsMap> entityStorage = new ConcurrentHashMap<>();
+    private static final Map<UUID, EntityFlags> entityStorage = new ConcurrentHashMap<>();
+
+    public static EntityFlags getFlags(UUID entityUUID) {
+        return entityStorage.computeIfAbsent(entityUUID, s -> new EntityFlags());
+    }
+
+    public static EntityFlags getStoredFlags(UUID entityUUID) {
+        return entityStorage.get(entityUUID);
+    }
 
     public static void setMetadata(Entity entity, EntityFlag entityFlag, Object value) {
         setMetadata(entity.getUniqueId(), entityFlag, value);
     }
 
     public static void setMetadata(UUID entityUUID, EntityFlag entityFlag, Object value) {
-        entityStorage.computeIfAbsent(entityUUID, s -> new FlagsMap()).put(entityFlag, value);
+        getFlags(entityUUID).set(entityFlag, value);
     }
 
     public static boolean hasMetadata(Entity entity, EntityFlag entityFlag) {
@@ -27,8 +38,8 @@ public final class EntityStorage {
     }
 
     public static boolean hasMetadata(UUID entityUUID, EntityFlag entityFlag) {
-        FlagsMap flagsMap = entityStorage.get(entityUUID);
-        return flagsMap != null && flagsMap.containsKey(entityFlag);
+        EntityFlags entityFlags = entityStorage.get(entityUUID);
+        return entityFlags != null && entityFlags.has(entityFlag);
     }
 
     public static <T> T getMetadata(Entity entity, EntityFlag entityFlag) {
@@ -44,8 +55,13 @@ public final class EntityStorage {
     }
 
     public static <T> T getMetadata(UUID entityUUID, EntityFlag entityFlag, T def) {
-        FlagsMap flagsMap = entityStorage.get(entityUUID);
-        return flagsMap == null ? null : (T) entityFlag.getValueClass().cast(flagsMap.getOrDefault(entityFlag, def));
+        EntityFlags entityFlags = entityStorage.get(entityUUID);
+        return entityFlags == null ? null : getMetadata(entityFlags, entityFlag, def);
+    }
+
+    public static <T> T getMetadata(EntityFlags entityFlags, EntityFlag entityFlag, T def) {
+        Object value = entityFlags.get(entityFlag);
+        return (T) entityFlag.getValueClass().cast(value == null ? def : value);
     }
 
     public static void removeMetadata(Entity entity, EntityFlag entityFlag) {
@@ -53,9 +69,9 @@ public final class EntityStorage {
     }
 
     public static void removeMetadata(UUID entityUUID, EntityFlag entityFlag) {
-        FlagsMap flagsMap = entityStorage.get(entityUUID);
-        if (flagsMap != null)
-            flagsMap.remove(entityFlag);
+        EntityFlags entityFlags = entityStorage.get(entityUUID);
+        if (entityFlags != null)
+            entityFlags.remove(entityFlag);
     }
 
     public static void clearMetadata(Entity entity) {
@@ -63,7 +79,10 @@ public final class EntityStorage {
     }
 
     public static void clearMetadata(UUID entityUUID) {
-        entityStorage.remove(entityUUID);
+        EntityFlags entityFlags = entityStorage.remove(entityUUID);
+        // Stacked entities may still hold a reference to the flags object, and will register a new one when needed.
+        if (entityFlags != null)
+            entityFlags.detach();
         EntityUtils.clearBukkitMetadata(entityUUID);
     }
 
@@ -71,49 +90,4 @@ public final class EntityStorage {
         entityStorage.clear();
     }
 
-    private static class FlagsMap {
-
-        private final ReadWriteLock lock = new ReentrantReadWriteLock();
-        private final Object[] values = new Object[EntityFlag.values().length];
-
-        public Object get(EntityFlag entityFlag) {
-            return getOrDefault(entityFlag, null);
-        }
-
-        public Object getOrDefault(EntityFlag entityFlag, Object defaultValue) {
-            try {
-                lock.readLock().lock();
-                Object value = values[entityFlag.ordinal()];
-                return value == null ? defaultValue : value;
-            } finally {
-                lock.readLock().unlock();
-            }
-        }
-
-        public boolean containsKey(EntityFlag entityFlag) {
-            try {
-                lock.readLock().lock();
-                return values[entityFlag.ordinal()] != null;
-            } finally {
-                lock.readLock().unlock();
-            }
-        }
-
-        public Object put(EntityFlag entityFlag, Object value) {
-            try {
-                lock.writeLock().lock();
-                Object oldValue = values[entityFlag.ordinal()];
-                values[entityFlag.ordinal()] = value;
-                return oldValue;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        }
-
-        public Object remove(EntityFlag entityFlag) {
-            return put(entityFlag, null);
-        }
-
-    }
-
 }
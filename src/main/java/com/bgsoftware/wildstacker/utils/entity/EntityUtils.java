@@ -10,6 +10,7 @@ import com.bgsoftware.wildstacker.hooks.CitizensHook;
 import com.bgsoftware.wildstacker.hooks.LevelledMobsHook;
 import com.bgsoftware.wildstacker.hooks.MythicMobsHook;
 import com.bgsoftware.wildstacker.hooks.PluginHooks;
+import com.bgsoftware.wildstacker.objects.WStackedEntity;
 import com.bgsoftware.wildstacker.utils.ServerVersion;
 import com.bgsoftware.wildstacker.utils.legacy.EntityTypes;
 import com.bgsoftware.wildstacker.utils.threads.Executor;
@@ -196,6 +197,50 @@ public final class EntityUtils {
         return Math.max(0, Math.min(5, amplifier));
     }
 
+    /*
+     * A hash of the compared attributes that can only change together with an event or a setter of the plugin.
+     * Entities with different signatures can't stack, but entities with equal signatures must still go through areSimilar.
+     * Attributes that change over time (age, love mode, anger, etc) are not part of the signature.
+     */
+    public static long getStackSignature(WStackedEntity stackedEntity) {
+        LivingEntity livingEntity = stackedEntity.getLivingEntity();
+        EntityTypes entityType = EntityTypes.fromEntity(livingEntity);
+
+        long signature = livingEntity.getType().ordinal();
+
+        if (StackCheck.SPAWN_REASON.isEnabled())
+            signature = 31 * signature + stackedEntity.getSpawnCause().ordinal();
+
+        if (StackCheck.UPGRADE.isEnabled())
+            signature = 31 * signature + stackedEntity.getUpgradeId();
+
+        if (StackCheck.NERFED.isEnabled())
+            signature = 31 * signature + (stackedEntity.isNerfed() ? 1 : 0);
+
+        if (StackCheck.NAME_TAG.isEnabled())
+            signature = 31 * signature + (stackedEntity.hasNameTag() ? 1 : 0);
+
+        if (StackCheck.IS_TAMED.isEnabled() && livingEntity instanceof Tameable)
+            signature = 31 * signature + (((Tameable) livingEntity).isTamed() ? 1 : 0);
+
+        if (StackCheck.ANIMAL_OWNER.isEnabled() && livingEntity instanceof Tameable)
+            signature = 31 * signature + requireNotNull(((Tameable) livingEntity).getOwner()).hashCode();
+
+        if (StackCheck.SHEEP_SHEARED.isEnabled() && StackCheck.SHEEP_SHEARED.isTypeAllowed(entityType))
+            signature = 31 * signature + (((Sheep) livingEntity).isSheared() ? 1 : 0);
+
+        if (StackCheck.SHEEP_COLOR.isEnabled() && StackCheck.SHEEP_COLOR.isTypeAllowed(entityType))
+            signature = 31 * signature + ((Sheep) livingEntity).getColor().ordinal();
+
+        if (StackCheck.SLIME_SIZE.isEnabled() && StackCheck.SLIME_SIZE.isTypeAllowed(entityType))
+            signature = 31 * signature + ((Slime) livingEntity).getSize();
+
+        if (StackCheck.ZOMBIE_BABY.isEnabled() && StackCheck.ZOMBIE_BABY.isTypeAllowed(entityType))
+            signature = 31 * signature + (((Zombie) livingEntity).isBaby() ? 1 : 0);
+
+        return signature;
+    }
+
     @SuppressWarnings("all")
     public static StackCheckResult areSimilar(Entity en1, Entity en2) {
         EntityTypes entityType = EntityTypes.fromEntity((LivingEntity) en1);
@@ -0,0 +1,182 @@
+package com.bgsoftware.wildstacker.utils.entity;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/*
+ * A spatial hash of stackable entities and items, bucketed by entity type (or item type).
+ * Entities can move without any event being called, therefore the cells of entities are updated lazily:
+ * by queries that find an entity outside of its cell, and by a periodic sweep over all the tracked entities.
+ * Should only be accessed from the main thread.
+ */
+final class StackablesGrid {
+
+    private final Map<World, Map<Long, Map<Object, Set<GridEntry>>>> cells = new HashMap<>();
+    private final Map<UUID, GridEntry> entries = new HashMap<>();
+    private final Location cachedLocation = new Location(null, 0, 0, 0);
+    private final int cellShift;
+
+    StackablesGrid(int cellShift) {
+        this.cellShift = cellShift;
+    }
+
+    void add(Entity entity) {
+        GridEntry gridEntry = entries.get(entity.getUniqueId());
+
+        if (gridEntry != null) {
+            relocate(gridEntry);
+            return;
+        }
+
+        Location location = entity.getLocation(cachedLocation);
+        gridEntry = new GridEntry(entity, getBucketKey(entity), location.getWorld(), getCellKey(location));
+        entries.put(entity.getUniqueId(), gridEntry);
+        getBucket(gridEntry).add(gridEntry);
+    }
+
+    void remove(Entity entity) {
+        GridEntry gridEntry = entries.remove(entity.getUniqueId());
+        if (gridEntry != null)
+            removeFromCell(gridEntry);
+    }
+
+    void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    List<Entity> getNearbyEntities(Location location, int range, Object bucketKey) {
+        int minX = location.getBlockX() - range;
+        int minY = location.getBlockY() - range;
+        int minZ = location.getBlockZ() - range;
+        int maxX = location.getBlockX() + range;
+        int maxY = location.getBlockY() + range;
+        int maxZ = location.getBlockZ() + range;
+
+        Map<Long, Map<Object, Set<GridEntry>>> worldCells = cells.get(location.getWorld());
+
+        if (worldCells == null)
+            return Collections.emptyList();
+
+        List<GridEntry> candidates = new ArrayList<>();
+
+        // Cells around the range are checked as well, for entities that moved since their cell was last updated.
+        for (int x = (minX >> cellShift) - 1; x <= (maxX >> cellShift) + 1; x++) {
+            for (int z = (minZ >> cellShift) - 1; z <= (maxZ >> cellShift) + 1; z++) {
+                Map<Object, Set<GridEntry>> cell = worldCells.get(getCellKey(x, z));
+                Set<GridEntry> bucket = cell == null ? null : cell.get(bucketKey);
+                if (bucket != null)
+                    candidates.addAll(bucket);
+            }
+        }
+
+        List<Entity> nearbyEntities = new ArrayList<>();
+
+        for (GridEntry gridEntry : candidates) {
+            if (!relocate(gridEntry))
+                continue;
+
+            Location entityLocation = gridEntry.entity.getLocation(cachedLocation);
+            int x = entityLocation.getBlockX(), y = entityLocation.getBlockY(), z = entityLocation.getBlockZ();
+
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ)
+                nearbyEntities.add(gridEntry.entity);
+        }
+
+        return nearbyEntities;
+    }
+
+    void sweep(Consumer<Entity> movedEntities) {
+        for (GridEntry gridEntry : new ArrayList<>(entries.values())) {
+            long cellKey = gridEntry.cellKey;
+            if (relocate(gridEntry) && cellKey != gridEntry.cellKey)
+                movedEntities.accept(gridEntry.entity);
+        }
+    }
+
+    // Updates the cell of the entity. Returns false if the entity was removed, and therefore removed from the grid.
+    // Entities are not valid yet while their spawn event is called, so only dead entities are removed.
+    private boolean relocate(GridEntry gridEntry) {
+        if (gridEntry.entity.isDead()) {
+            entries.remove(gridEntry.entity.getUniqueId());
+            removeFromCell(gridEntry);
+            return false;
+        }
+
+        Location location = gridEntry.entity.getLocation(cachedLocation);
+        long cellKey = getCellKey(location);
+
+        if (cellKey != gridEntry.cellKey || location.getWorld() != gridEntry.world) {
+            removeFromCell(gridEntry);
+            gridEntry.world = location.getWorld();
+            gridEntry.cellKey = cellKey;
+            getBucket(gridEntry).add(gridEntry);
+        }
+
+        return true;
+    }
+
+    private void removeFromCell(GridEntry gridEntry) {
+        Map<Long, Map<Object, Set<GridEntry>>> worldCells = cells.get(gridEntry.world);
+        Map<Object, Set<GridEntry>> cell = worldCells == null ? null : worldCells.get(gridEntry.cellKey);
+        Set<GridEntry> bucket = cell == null ? null : cell.get(gridEntry.bucketKey);
+
+        if (bucket == null || !bucket.remove(gridEntry) || !bucket.isEmpty())
+            return;
+
+        cell.remove(gridEntry.bucketKey);
+
+        if (cell.isEmpty()) {
+            worldCells.remove(gridEntry.cellKey);
+            if (worldCells.isEmpty())
+                cells.remove(gridEntry.world);
+        }
+    }
+
+    private Set<GridEntry> getBucket(GridEntry gridEntry) {
+        return cells.computeIfAbsent(gridEntry.world, w -> new HashMap<>())
+                .computeIfAbsent(gridEntry.cellKey, c -> new HashMap<>())
+                .computeIfAbsent(gridEntry.bucketKey, b -> new HashSet<>());
+    }
+
+    private long getCellKey(Location location) {
+        return getCellKey(location.getBlockX() >> cellShift, location.getBlockZ() >> cellShift);
+    }
+
+    private static long getCellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static Object getBucketKey(Entity entity) {
+        return entity instanceof Item ? ((Item) entity).getItemStack().getType() : entity.getType();
+    }
+
+    private static final class GridEntry {
+
+        private final Entity entity;
+        private final Object bucketKey;
+        private World world;
+        private long cellKey;
+
+        GridEntry(Entity entity, Object bucketKey, World world, long cellKey) {
+            this.entity = entity;
+            this.bucketKey = bucketKey;
+            this.world = world;
+            this.cellKey = cellKey;
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.bgsoftware.wildstacker.utils.names;
+
+import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.objects.WStackedObject;
+import com.bgsoftware.wildstacker.utils.threads.Executor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Names of objects are not updated right away, but only once at the end of the tick (or in the next tick).
+ * Updating the name of an object multiple times in the same tick will therefore only render it once.
+ */
+public final class NamesUpdater {
+
+    private static final Map<WStackedObject<?>, WStackedObject<?>> pendingObjects = new ConcurrentHashMap<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private static final Runnable flushTask = NamesUpdater::flush;
+
+    private NamesUpdater() {
+
+    }
+
+    public static void markDirty(WStackedObject<?> stackedObject) {
+        pendingObjects.put(stackedObject, stackedObject);
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            // Tick-end tasks are not supported by all servers, in which case the names are updated in the next tick.
+            if (Executor.canRunAtEndOfTick()) {
+                Executor.runAtEndOfTick(flushTask);
+            } else {
+                Executor.sync(flushTask, 1L);
+            }
+        }
+    }
+
+    public static void cancel(WStackedObject<?> stackedObject) {
+        if (!pendingObjects.isEmpty())
+            pendingObjects.remove(stackedObject, stackedObject);
+    }
+
+    private static void flush() {
+        flushScheduled.set(false);
+
+        for (WStackedObject<?> pendingObject : pendingObjects.keySet()) {
+            // The latest object that was marked is the one that is updated.
+            WStackedObject<?> stackedObject = pendingObjects.remove(pendingObject);
+
+            if (stackedObject == null)
+                continue;
+
+            try {
+                stackedObject.applyName();
+            } catch (Throwable ex) {
+                WildStackerPlugin.log("An error occurred while updating the name of " + stackedObject + ":");
+                ex.printStackTrace();
+            }
+        }
+    }
+
+}
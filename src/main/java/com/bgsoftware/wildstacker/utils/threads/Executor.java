@@ -39,6 +39,10 @@ public final class Executor {
         plugin.getNMSAdapter().runAtEndOfTick(code);
     }
 
+    public static boolean canRunAtEndOfTick() {
+        return plugin.getNMSAdapter().canRunAtEndOfTick();
+    }
+
     public static void async(Runnable runnable) {
         if (shutdown)
             return;
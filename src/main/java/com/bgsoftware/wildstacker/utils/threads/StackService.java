@@ -1,47 +1,92 @@
 package com.bgsoftware.wildstacker.utils.threads;
 
-import com.bgsoftware.wildstacker.WildStackerPlugin;
+import com.bgsoftware.wildstacker.api.enums.StackResult;
 import com.bgsoftware.wildstacker.api.objects.AsyncStackedObject;
-import com.bgsoftware.wildstacker.api.objects.StackedItem;
 import com.bgsoftware.wildstacker.api.objects.StackedObject;
 import com.bgsoftware.wildstacker.objects.WAsyncStackedObject;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.bukkit.Bukkit;
-import org.bukkit.World;
+import org.bukkit.Location;
 
-import java.util.EnumMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
+/*
+ * Stacking requests are executed by single-threaded shards, chosen by the region of the stacked object.
+ * Requests of the same region are therefore serialized, while unrelated regions are stacked in parallel.
+ * The queue of every shard is bounded - when it's full, requests wait in the overflow queue of the shard,
+ * and are moved into the queue by the shard thread in the same order, so requests of a region are never reordered.
+ * The overflow queue is bounded as well - when it's full, requests are rejected with THREAD_CATCHER,
+ * and the objects are stacked again by the next round of the stacking tasks.
+ * Every object has at most one queued request - requests of an object that is already queued are attached to it,
+ * and are only tried if the object wasn't stacked by the requests before them.
+ */
 @SuppressWarnings({"WeakerAccess", "BooleanMethodIsAlwaysInverted"})
 public final class StackService {
 
-    private static final Map<String, StackServiceWorld> stackServiceWorldMap = Maps.newConcurrentMap();
-    private static final Pattern STACKING_THREAD_NAME_PATTERN = Pattern.compile("WildStacker (Items|Entities) Stacking Thread");
+    private static final Pattern STACKING_THREAD_NAME_PATTERN = Pattern.compile("WildStacker Stacking Thread");
 
-    public static void execute(StackedObject stackedObject, StackedObject otherObject, Runnable runnable) {
-        Runnable finalRunnable;
+    // Regions are 8x8 chunks.
+    private static final int REGION_SHIFT = 7;
+    private static final int SHARDS_AMOUNT = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int SHARD_QUEUE_CAPACITY = 1024;
+    private static final int SHARD_OVERFLOW_CAPACITY = 4096;
 
-        if (stackedObject instanceof AsyncStackedObject && otherObject instanceof AsyncStackedObject) {
-            finalRunnable = () -> DoubleMutex.hold((WAsyncStackedObject<?>) stackedObject,
-                    (WAsyncStackedObject<?>) otherObject, runnable);
-        } else {
-            finalRunnable = runnable;
-        }
+    private static final Map<Integer, StackRequest> pendingRequests = Maps.newConcurrentMap();
 
-        execute(stackedObject.getWorld(), StackType.fromObject(stackedObject), finalRunnable);
-    }
+    private static volatile StackServiceShard[] shards = null;
 
-    private static void execute(World world, StackType stackType, Runnable runnable) {
+    public static void execute(StackedObject stackedObject, StackedObject otherObject,
+                               Supplier<StackResult> stackFunction, Consumer<StackResult> stackResult) {
         if (isStackThread()) {
-            runnable.run();
+            StackResult result = stackFunction.get();
+            if (stackResult != null)
+                stackResult.accept(result);
             return;
         }
 
-        stackServiceWorldMap.computeIfAbsent(world.getName(), s -> new StackServiceWorld(world.getName())).execute(stackType, runnable);
+        Integer requestKey = null;
+        Integer targetKey = null;
+
+        if (stackedObject instanceof AsyncStackedObject && otherObject instanceof AsyncStackedObject) {
+            requestKey = ((WAsyncStackedObject<?>) stackedObject).getId();
+            targetKey = ((WAsyncStackedObject<?>) otherObject).getId();
+        }
+
+        // The shard is chosen by the stacked object, so all of its requests are executed by the same shard.
+        StackServiceShard shard = getShard(stackedObject.getLocation());
+
+        if (requestKey != null) {
+            StackRequest pendingRequest = pendingRequests.get(requestKey);
+            if (pendingRequest != null && pendingRequest.addAttempt(targetKey, stackFunction, stackResult)) {
+                shard.deduplicatedRequests.incrementAndGet();
+                return;
+            }
+        }
+
+        StackRequest stackRequest = new StackRequest(requestKey, shard);
+        stackRequest.addAttempt(targetKey, stackFunction, stackResult);
+
+        if (requestKey != null)
+            pendingRequests.put(requestKey, stackRequest);
+
+        shard.submittedRequests.incrementAndGet();
+
+        if (!shard.submit(stackRequest)) {
+            shard.rejectedRequests.incrementAndGet();
+            stackRequest.reject();
+        }
     }
 
     public static boolean isStackThread() {
@@ -52,54 +97,214 @@ public final class StackService {
         return isStackThread() || Bukkit.isPrimaryThread();
     }
 
-    public static void stop() {
-        stackServiceWorldMap.values().forEach(StackServiceWorld::stop);
-        stackServiceWorldMap.clear();
+    public static List<String> getShardsStats() {
+        List<String> shardsStats = new ArrayList<>();
+        StackServiceShard[] shards = StackService.shards;
+
+        if (shards != null) {
+            for (int i = 0; i < shards.length; i++) {
+                StackServiceShard shard = shards[i];
+                long completedRequests = shard.completedRequests.get();
+                long averageWait = completedRequests == 0 ? 0 :
+                        TimeUnit.NANOSECONDS.toMillis(shard.totalWaitNanos.get() / completedRequests);
+                shardsStats.add("Shard #" + i + ": (Queued: " + shard.executor.getQueue().size() +
+                        ", Overflow: " + shard.getOverflowSize() +
+                        ", Submitted: " + shard.submittedRequests.get() +
+                        ", Deduplicated: " + shard.deduplicatedRequests.get() +
+                        ", Overflowed: " + shard.overflowedRequests.get() +
+                        ", Rejected: " + shard.rejectedRequests.get() +
+                        ", Avg Wait: " + averageWait + "ms" +
+                        ", Max Wait: " + TimeUnit.NANOSECONDS.toMillis(shard.maxWaitNanos.get()) + "ms)");
+            }
+        }
+
+        return shardsStats;
+    }
+
+    public static synchronized void stop() {
+        if (shards != null) {
+            for (StackServiceShard shard : shards) {
+                shard.executor.shutdownNow();
+                shard.clearOverflow();
+            }
+            shards = null;
+        }
+
+        pendingRequests.clear();
+    }
+
+    private static StackServiceShard getShard(Location location) {
+        StackServiceShard[] shards = StackService.shards;
+
+        if (shards == null) {
+            synchronized (StackService.class) {
+                if ((shards = StackService.shards) == null) {
+                    shards = new StackServiceShard[SHARDS_AMOUNT];
+                    for (int i = 0; i < shards.length; i++)
+                        shards[i] = new StackServiceShard(i);
+                    StackService.shards = shards;
+                }
+            }
+        }
+
+        int regionX = location.getBlockX() >> REGION_SHIFT, regionZ = location.getBlockZ() >> REGION_SHIFT;
+        int regionHash = (location.getWorld().getName().hashCode() * 31 + regionX) * 31 + regionZ;
+
+        return shards[Math.floorMod(regionHash, shards.length)];
     }
 
-    public enum StackType {
+    private static final class StackRequest implements Runnable {
 
-        ITEMS("Items"),
-        ENTITIES("Entities");
+        private final Integer requestKey;
+        private final StackServiceShard shard;
+        private final List<StackAttempt> attempts = new ArrayList<>(1);
+        private final long submitTime = System.nanoTime();
 
-        private final String name;
+        private boolean started = false;
 
-        StackType(String name) {
-            this.name = name;
+        StackRequest(Integer requestKey, StackServiceShard shard) {
+            this.requestKey = requestKey;
+            this.shard = shard;
         }
 
-        static StackType fromObject(StackedObject stackedObject) {
-            return stackedObject instanceof StackedItem ? ITEMS : ENTITIES;
+        synchronized boolean addAttempt(Integer targetKey, Supplier<StackResult> stackFunction, Consumer<StackResult> callback) {
+            if (started)
+                return false;
+
+            StackAttempt stackAttempt = null;
+
+            if (targetKey != null) {
+                for (StackAttempt attempt : attempts) {
+                    if (targetKey.equals(attempt.targetKey)) {
+                        stackAttempt = attempt;
+                        break;
+                    }
+                }
+            }
+
+            if (stackAttempt == null) {
+                stackAttempt = new StackAttempt(targetKey, stackFunction);
+                attempts.add(stackAttempt);
+            }
+
+            if (callback != null)
+                stackAttempt.callbacks.add(callback);
+
+            return true;
+        }
+
+        void reject() {
+            synchronized (this) {
+                started = true;
+            }
+
+            if (requestKey != null)
+                pendingRequests.remove(requestKey, this);
+
+            for (StackAttempt attempt : attempts) {
+                for (Consumer<StackResult> callback : attempt.callbacks)
+                    callback.accept(StackResult.THREAD_CATCHER);
+            }
         }
 
         @Override
-        public String toString() {
-            return name;
+        public void run() {
+            try {
+                synchronized (this) {
+                    started = true;
+                }
+
+                if (requestKey != null)
+                    pendingRequests.remove(requestKey, this);
+
+                long waitNanos = System.nanoTime() - submitTime;
+                shard.completedRequests.incrementAndGet();
+                shard.totalWaitNanos.addAndGet(waitNanos);
+                shard.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+                boolean stacked = false;
+
+                for (StackAttempt attempt : attempts) {
+                    // The object was already stacked into another object, so it cannot be stacked again.
+                    StackResult stackResult = stacked ? StackResult.NOT_SIMILAR : attempt.stackFunction.get();
+                    stacked |= stackResult == StackResult.SUCCESS;
+
+                    for (Consumer<StackResult> callback : attempt.callbacks)
+                        callback.accept(stackResult);
+                }
+            } finally {
+                shard.drainOverflow();
+            }
         }
 
     }
 
-    private static final class StackServiceWorld {
+    private static final class StackAttempt {
 
-        private static final WildStackerPlugin plugin = WildStackerPlugin.getPlugin();
+        private final Integer targetKey;
+        private final Supplier<StackResult> stackFunction;
+        private final List<Consumer<StackResult>> callbacks = new ArrayList<>(1);
 
-        private final Map<StackType, ExecutorService> executorServiceMap = new EnumMap<>(StackType.class);
+        StackAttempt(Integer targetKey, Supplier<StackResult> stackFunction) {
+            this.targetKey = targetKey;
+            this.stackFunction = stackFunction;
+        }
+
+    }
+
+    private static final class StackServiceShard {
 
+        private final ThreadPoolExecutor executor;
+        // Should only be accessed while holding the lock of the shard.
+        private final Queue<Runnable> overflowRequests = new ArrayDeque<>();
+
+        private final AtomicLong submittedRequests = new AtomicLong();
+        private final AtomicLong deduplicatedRequests = new AtomicLong();
+        private final AtomicLong overflowedRequests = new AtomicLong();
+        private final AtomicLong rejectedRequests = new AtomicLong();
+        private final AtomicLong completedRequests = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        StackServiceShard(int index) {
+            executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(SHARD_QUEUE_CAPACITY),
+                    new ThreadFactoryBuilder().setNameFormat("WildStacker Stacking Thread #" + index).build(),
+                    new ThreadPoolExecutor.DiscardPolicy());
+            // Requests are added directly to the queue, so the thread of the shard must already be running.
+            executor.prestartCoreThread();
+        }
+
+        // Returns false if the request was rejected, because both the queue and the overflow queue are full.
+        synchronized boolean submit(Runnable request) {
+            if (executor.isShutdown())
+                return true;
+
+            // Requests must not pass requests that are already waiting in the overflow queue.
+            if (overflowRequests.isEmpty() && executor.getQueue().offer(request))
+                return true;
+
+            if (overflowRequests.size() >= SHARD_OVERFLOW_CAPACITY)
+                return false;
+
+            overflowedRequests.incrementAndGet();
+            overflowRequests.add(request);
+
+            return true;
+        }
 
-        StackServiceWorld(String world) {
-            for (StackType stackType : StackType.values())
-                executorServiceMap.put(stackType, Executors.newFixedThreadPool(2,
-                        new ThreadFactoryBuilder().setNameFormat(
-                                "WildStacker " + stackType + " Stacking Thread (" + world + ")"
-                        ).build()));
+        synchronized int getOverflowSize() {
+            return overflowRequests.size();
         }
 
-        void execute(StackType type, Runnable runnable) {
-            executorServiceMap.get(type).submit(runnable);
+        synchronized void clearOverflow() {
+            overflowRequests.clear();
         }
 
-        void stop() {
-            executorServiceMap.values().forEach(ExecutorService::shutdownNow);
+        synchronized void drainOverflow() {
+            Runnable request;
+            while ((request = overflowRequests.peek()) != null && executor.getQueue().offer(request))
+                overflowRequests.poll();
         }
 
     }